@@ -13,18 +13,19 @@ import hudson.scm.ChangeLogSet.Entry;
 import hudson.tasks.test.AbstractTestResultAction;
 import hudson.tasks.test.TestResult;
 import hudson.triggers.SCMTrigger;
-import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import jenkins.model.Jenkins;
+import jenkins.plugins.slack.decisions.BuildTransitions;
 import jenkins.plugins.slack.decisions.Context;
-import jenkins.plugins.slack.decisions.NotificationConditions;
+import jenkins.plugins.slack.decisions.DecisionTable;
+import jenkins.plugins.slack.decisions.FailedTestHashes;
 import jenkins.plugins.slack.logging.BuildAwareLogger;
 import jenkins.plugins.slack.logging.BuildKey;
 import jenkins.plugins.slack.matrix.MatrixTriggerMode;
@@ -109,25 +110,48 @@ public class ActiveNotifier implements FineGrainedNotifier {
         }
         String key = BuildKey.format(r);
         AbstractProject<?, ?> project = r.getProject();
+        if (notifier.getIncludeFailedTests() && notifier.getIncludeFailedTestChanges()) {
+            // for the next build, whether this one notifies or not
+            FailedTestHashes.record(r);
+        }
         AbstractBuild<?, ?> previousBuild = project.getLastBuild();
         if (null != previousBuild) {
-            do {
-                previousBuild = previousBuild.getPreviousCompletedBuild();
-            } while ((null != previousBuild && previousBuild.getResult() == Result.ABORTED) || (null != previousBuild && previousBuild.getNumber() == r.getNumber()));
-            if (null != previousBuild) {
-                log.info(key, "found #%d as previous completed, non-aborted build", previousBuild.getNumber());
+            Context context;
+            BuildTransitions transitions = BuildTransitions.before(r);
+            if (transitions != null) {
+                int previousNumber = transitions.getLastNonAbortedNumber();
+                if (previousNumber > 0) {
+                    log.info(key, "found #%d as previous completed, non-aborted build", previousNumber);
+                } else {
+                    log.debug(key, "did not find previous completed, non-aborted build");
+                }
+                context = new Context(r, transitions::getLastNonAbortedResult,
+                        () -> previousNumber > 0 ? project.getBuildByNumber(previousNumber) : null);
             } else {
-                log.debug(key, "did not find previous completed, non-aborted build");
+                do {
+                    previousBuild = previousBuild.getPreviousCompletedBuild();
+                } while ((null != previousBuild && previousBuild.getResult() == Result.ABORTED) || (null != previousBuild && previousBuild.getNumber() == r.getNumber()));
+                if (null != previousBuild) {
+                    log.info(key, "found #%d as previous completed, non-aborted build", previousBuild.getNumber());
+                } else {
+                    log.debug(key, "did not find previous completed, non-aborted build");
+                }
+                context = new Context(r, previousBuild);
             }
 
-            NotificationConditions conditions = NotificationConditions.create(notifier, log);
-            if (conditions.test(new Context(r, previousBuild))) {
-                String message = getBuildStatusMessage(r, notifier.getIncludeTestSummary(),
-                        notifier.getIncludeFailedTests(), notifier.getIncludeCustomMessage());
+            if (DecisionTable.forPreferences(notifier).test(context, key, log)) {
+                MessageBuilder statusMessage = buildStatusMessage(r, notifier.getIncludeTestSummary(),
+                        notifier.getIncludeFailedTests(), notifier.getIncludeCustomMessage(), context);
+                String message = statusMessage.toString();
                 if (notifier.getCommitInfoChoice().showAnything()) {
                     message = message + "\n" + getCommitList(r);
                 }
-                slackFactory.apply(r).publish(message, getBuildColor(r));
+                List<String> threadReplies = statusMessage.getThreadReplies();
+                if (threadReplies.isEmpty()) {
+                    slackFactory.apply(r).publish(message, getBuildColor(r));
+                } else {
+                    slackFactory.apply(r).publishWithThreadReplies(message, threadReplies, getBuildColor(r));
+                }
                 if (notifier.getUploadFiles()) {
                     slackFactory.apply(r).upload(r.getWorkspace(), notifier.getArtifactIncludes(), log.getTaskListener());
                 }
@@ -234,6 +258,14 @@ public class ActiveNotifier implements FineGrainedNotifier {
     }
 
     String getBuildStatusMessage(AbstractBuild r, boolean includeTestSummary, boolean includeFailedTests, boolean includeCustomMessage) {
+        return buildStatusMessage(r, includeTestSummary, includeFailedTests, includeCustomMessage, null).toString();
+    }
+
+    /**
+     * @param context the previous build, to list only the changes in failed tests when enabled
+     */
+    private MessageBuilder buildStatusMessage(AbstractBuild r, boolean includeTestSummary, boolean includeFailedTests,
+                                              boolean includeCustomMessage, Context context) {
         MessageBuilder message = new MessageBuilder(notifier, r, log, tokenExpander);
         message.appendStatusMessage();
         message.appendDuration();
@@ -242,18 +274,20 @@ public class ActiveNotifier implements FineGrainedNotifier {
             message.appendTestSummary();
         }
         if (includeFailedTests) {
-            message.appendFailedTests();
+            if (context != null && notifier.getIncludeFailedTestChanges()) {
+                message.appendFailedTestChanges(context.getPreviousFailedTestHashes());
+            } else {
+                message.appendFailedTests();
+            }
         }
         if (includeCustomMessage) {
             message.appendCustomMessage(r.getResult());
         }
-        return message.toString();
+        return message;
     }
 
     public static class MessageBuilder {
 
-        private static final Pattern aTag = Pattern.compile("(?i)<a([^>]+)>(.+?)</a>|([{%])");
-        private static final Pattern href = Pattern.compile("\\s*(?i)href\\s*=\\s*(\"([^\"]*\")|'[^']*'|([^'\">\\s]+))");
         private static final String BACK_TO_NORMAL_STATUS_MESSAGE = "Back to normal",
                                     STILL_FAILING_STATUS_MESSAGE = "Still Failing",
                                     SUCCESS_STATUS_MESSAGE = "Success",
@@ -270,6 +304,7 @@ public class ActiveNotifier implements FineGrainedNotifier {
         private final String buildKey;
         private final TokenExpander tokenExpander;
         private AbstractBuild build;
+        private List<String> threadReplies = Collections.emptyList();
 
         public MessageBuilder(SlackNotifier notifier, AbstractBuild build, BuildAwareLogger log, TokenExpander tokenExpander) {
             this.notifier = notifier;
@@ -292,29 +327,39 @@ public class ActiveNotifier implements FineGrainedNotifier {
             if(null != result) {
                 AbstractBuild lastBuild = r.getProject().getLastBuild();
                 if (lastBuild != null) {
-                    Run previousBuild = lastBuild.getPreviousBuild();
-                    Run previousSuccessfulBuild = r.getPreviousSuccessfulBuild();
-                    boolean buildHasSucceededBefore = previousSuccessfulBuild != null;
-
-                    /*
-                     * If the last build was aborted, go back to find the last non-aborted build.
-                     * This is so that aborted builds do not affect build transitions.
-                     * I.e. if build 1 was failure, build 2 was aborted and build 3 was a success the transition
-                     * should be failure -> success (and therefore back to normal) not aborted -> success.
-                     */
-                    Run lastNonAbortedBuild = previousBuild;
-                    while (lastNonAbortedBuild != null && lastNonAbortedBuild.getResult() == Result.ABORTED) {
-                        lastNonAbortedBuild = lastNonAbortedBuild.getPreviousBuild();
-                    }
+                    boolean buildHasSucceededBefore;
+                    boolean hasNonAbortedBuild;
+                    BuildTransitions transitions = BuildTransitions.before(r);
+                    if (transitions != null) {
+                        buildHasSucceededBefore = transitions.getLastSuccessNumber() > 0;
+                        hasNonAbortedBuild = transitions.getLastNonAbortedNumber() > 0;
+                        previousResult = hasNonAbortedBuild ? transitions.getLastNonAbortedResult() : Result.SUCCESS;
+                    } else {
+                        Run previousBuild = lastBuild.getPreviousBuild();
+                        Run previousSuccessfulBuild = r.getPreviousSuccessfulBuild();
+                        buildHasSucceededBefore = previousSuccessfulBuild != null;
+
+                        /*
+                         * If the last build was aborted, go back to find the last non-aborted build.
+                         * This is so that aborted builds do not affect build transitions.
+                         * I.e. if build 1 was failure, build 2 was aborted and build 3 was a success the transition
+                         * should be failure -> success (and therefore back to normal) not aborted -> success.
+                         */
+                        Run lastNonAbortedBuild = previousBuild;
+                        while (lastNonAbortedBuild != null && lastNonAbortedBuild.getResult() == Result.ABORTED) {
+                            lastNonAbortedBuild = lastNonAbortedBuild.getPreviousBuild();
+                        }
+                        hasNonAbortedBuild = lastNonAbortedBuild != null;
 
 
-                    /* If all previous builds have been aborted, then use
-                     * SUCCESS as a default status so an aborted message is sent
-                     */
-                    if (lastNonAbortedBuild == null) {
-                        previousResult = Result.SUCCESS;
-                    } else {
-                        previousResult = lastNonAbortedBuild.getResult();
+                        /* If all previous builds have been aborted, then use
+                         * SUCCESS as a default status so an aborted message is sent
+                         */
+                        if (lastNonAbortedBuild == null) {
+                            previousResult = Result.SUCCESS;
+                        } else {
+                            previousResult = lastNonAbortedBuild.getResult();
+                        }
                     }
 
                     /* Back to normal should only be shown if the build has actually succeeded at some point.
@@ -344,7 +389,7 @@ public class ActiveNotifier implements FineGrainedNotifier {
                     if (result == Result.UNSTABLE) {
                         return UNSTABLE_STATUS_MESSAGE;
                     }
-                    if (lastNonAbortedBuild != null && previousResult != null && result.isWorseThan(previousResult)) {
+                    if (hasNonAbortedBuild && previousResult != null && result.isWorseThan(previousResult)) {
                         return REGRESSION_STATUS_MESSAGE;
                     }
                 }
@@ -406,22 +451,82 @@ public class ActiveNotifier implements FineGrainedNotifier {
             return this;
         }
 
+        /**
+         * Appends the first page of failed tests, the others are kept for {@link #getThreadReplies()}.
+         */
         public MessageBuilder appendFailedTests() {
             AbstractTestResultAction<?> action = this.build
                     .getAction(AbstractTestResultAction.class);
             if (action != null) {
-                int failed = action.getFailCount();
-                if (failed > 0) {
-                    message.append("\n").append(failed).append(" Failed Tests:\n");
-                    for(TestResult result : action.getFailedTests()) {
-                        message.append("\t").append(getTestClassAndMethod(result)).append(" after ")
-                                .append(result.getDurationString()).append("\n");
+                List<String> pages = FailedTestsRenderer.DEFAULT.render(action);
+                if (!pages.isEmpty()) {
+                    message.append(pages.get(0));
+                    threadReplies = pages.subList(1, pages.size());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Appends the tests that failed since the previous build and the ones fixed since, or all
+         * failed tests if the previous build didn't keep its failed tests.
+         */
+        public MessageBuilder appendFailedTestChanges(FailedTestHashes previousFailedTests) {
+            AbstractTestResultAction<?> action = this.build
+                    .getAction(AbstractTestResultAction.class);
+            if (action == null || previousFailedTests == null) {
+                return appendFailedTests();
+            }
+            List<? extends TestResult> failedTests = action.getFailedTests();
+            List<TestResult> newlyFailedTests = new ArrayList<>();
+            for (TestResult failedTest : failedTests) {
+                if (!previousFailedTests.contains(failedTest)) {
+                    newlyFailedTests.add(failedTest);
+                }
+            }
+            // only look for the fixed tests among the passed ones if there are any
+            List<TestResult> fixedTests = new ArrayList<>();
+            FailedTestHashes failedTestHashes = this.build.getAction(FailedTestHashes.class);
+            if (failedTestHashes == null) {
+                failedTestHashes = FailedTestHashes.of(failedTests);
+            }
+            int fixed = previousFailedTests.countMissingFrom(failedTestHashes);
+            if (fixed > 0 && action.getResult() instanceof TestResult) {
+                for (TestResult passedTest : ((TestResult) action.getResult()).getPassedTests()) {
+                    if (previousFailedTests.contains(passedTest)) {
+                        fixedTests.add(passedTest);
+                        if (fixedTests.size() == fixed) {
+                            break;
+                        }
                     }
                 }
             }
+
+            List<String> newlyFailedPages = FailedTestsRenderer.DEFAULT.render("New Failed Tests", newlyFailedTests.size(), newlyFailedTests);
+            List<String> fixedPages = FailedTestsRenderer.DEFAULT.render("Fixed Tests", fixedTests.size(), fixedTests);
+            if (newlyFailedPages.isEmpty() && fixedPages.isEmpty()) {
+                if (!failedTests.isEmpty()) {
+                    message.append("\nNo new failed tests, ").append(failedTests.size()).append(" still failing");
+                }
+                return this;
+            }
+            threadReplies = new ArrayList<>();
+            for (List<String> pages : Arrays.asList(newlyFailedPages, fixedPages)) {
+                if (!pages.isEmpty()) {
+                    message.append(pages.get(0));
+                    threadReplies.addAll(pages.subList(1, pages.size()));
+                }
+            }
             return this;
         }
 
+        /**
+         * @return what didn't fit in the message, to post in its thread
+         */
+        public List<String> getThreadReplies() {
+            return threadReplies;
+        }
+
         public MessageBuilder appendCustomMessage(Result buildResult) {
             String customMessage = "";
             if (buildResult != null) {
@@ -446,23 +551,19 @@ public class ActiveNotifier implements FineGrainedNotifier {
             return this;
         }
 
-        private String getTestClassAndMethod(TestResult result) {
-            String fullDisplayName = result.getFullDisplayName();
-
-            if (StringUtils.countMatches(fullDisplayName, ".") > 1) {
-                int methodDotIndex = fullDisplayName.lastIndexOf('.');
-                int testClassDotIndex = fullDisplayName.substring(0, methodDotIndex).lastIndexOf('.');
-
-                return fullDisplayName.substring(testClassDotIndex + 1);
-
-            } else {
-                return fullDisplayName;
-            }
-        }
-
         private String createBackToNormalDurationString(){
             // This status code guarantees that the previous build fails and has been successful before
             // The back to normal time is the time since the build first broke
+            BuildTransitions transitions = BuildTransitions.before(build);
+            if (transitions != null) {
+                if (transitions.getLastSuccessNumber() == 0) {
+                    return null;
+                }
+                long buildEndTime = build.getStartTimeInMillis() + build.getDuration();
+                // no build after the successful one, it's this one
+                long initialFailureEndTime = transitions.getBrokenNumber() > 0 ? transitions.getBrokenEndMillis() : buildEndTime;
+                return Util.getTimeSpanString(buildEndTime - initialFailureEndTime);
+            }
             Run previousSuccessfulBuild = build.getPreviousSuccessfulBuild();
             if (null != previousSuccessfulBuild && null != previousSuccessfulBuild.getNextBuild()) {
                 Run initialFailureAfterPreviousSuccessfulBuild = previousSuccessfulBuild.getNextBuild();
@@ -480,45 +581,8 @@ public class ActiveNotifier implements FineGrainedNotifier {
             return null;
         }
 
-        private String escapeCharacters(String string) {
-            string = string.replace("&", "&amp;");
-            string = string.replace("<", "&lt;");
-            string = string.replace(">", "&gt;");
-
-            return string;
-        }
-
-        private String[] extractReplaceLinks(Matcher aTag, StringBuffer sb) {
-            int size = 0;
-            List<String> links = new ArrayList<>();
-            while (aTag.find()) {
-                String firstGroup = aTag.group(1);
-                if (firstGroup != null) {
-                    Matcher url = href.matcher(firstGroup);
-                    if (url.find()) {
-                        String escapeThis = aTag.group(3);
-                        if (escapeThis != null) {
-                            aTag.appendReplacement(sb, String.format("{%s}", size++));
-                            links.add(escapeThis);
-                        } else {
-                            aTag.appendReplacement(sb, String.format("{%s}", size++));
-                            links.add(String.format("<%s|%s>", url.group(1).replaceAll("\"", ""), aTag.group(2)));
-                        }
-                    }
-                } else {
-                    String escapeThis = aTag.group(3);
-                    aTag.appendReplacement(sb, String.format("{%s}", size++));
-                    links.add(escapeThis);
-                }
-            }
-            aTag.appendTail(sb);
-            return links.toArray(new String[size]);
-        }
-
         public String escape(String string) {
-            StringBuffer pattern = new StringBuffer();
-            Object[] links = extractReplaceLinks(aTag.matcher(string), pattern);
-            return MessageFormat.format(escapeCharacters(pattern.toString()), links);
+            return MessageEscaper.escape(string);
         }
 
         public String toString() {
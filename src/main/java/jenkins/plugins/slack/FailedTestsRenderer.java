@@ -0,0 +1,184 @@
+package jenkins.plugins.slack;
+
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the failed tests of a build grouped by test class, in pages of a limited size. The first
+ * page goes in the notification and the others in its thread. Only the first tests of each class
+ * are listed, the others are counted, and the failed tests stop being read once the pages are
+ * full, so a build with thousands of failures doesn't make a message Slack truncates or rejects.
+ */
+final class FailedTestsRenderer {
+
+    static final FailedTestsRenderer DEFAULT = new FailedTestsRenderer(
+            Integer.getInteger(FailedTestsRenderer.class.getName() + ".pageBytes", 3000),
+            Integer.getInteger(FailedTestsRenderer.class.getName() + ".maxPages", 5),
+            Integer.getInteger(FailedTestsRenderer.class.getName() + ".testsPerClass", 10),
+            Integer.getInteger(FailedTestsRenderer.class.getName() + ".maxTests", 1000));
+
+    private final int pageBytes;
+    private final int maxPages;
+    private final int testsPerClass;
+    private final int maxTests;
+
+    /**
+     * @param pageBytes the size of a page in UTF-8, a single test longer than that still gets a page
+     * @param maxPages the number of pages, including the one in the notification
+     * @param testsPerClass the number of tests listed for each class
+     * @param maxTests the number of failed tests read at most
+     */
+    FailedTestsRenderer(int pageBytes, int maxPages, int testsPerClass, int maxTests) {
+        this.pageBytes = pageBytes;
+        this.maxPages = maxPages;
+        this.testsPerClass = testsPerClass;
+        this.maxTests = maxTests;
+    }
+
+    /**
+     * @return the pages, none if there are no failed tests
+     */
+    List<String> render(AbstractTestResultAction<?> action) {
+        int failed = action.getFailCount();
+        return failed > 0 ? render(failed, action.getFailedTests()) : Collections.emptyList();
+    }
+
+    List<String> render(int failed, List<? extends TestResult> failedTests) {
+        return render("Failed Tests", failed, failedTests);
+    }
+
+    /**
+     * @param title what the tests are, e.g. {@code Failed Tests}
+     * @param failed the number of tests, the list isn't read to the end if the pages are full
+     * @param failedTests the tests
+     */
+    List<String> render(String title, int failed, List<? extends TestResult> failedTests) {
+        Map<String, TestClass> testClasses = new LinkedHashMap<>();
+        int budget = pageBytes * maxPages;
+        int bytes = 0;
+        int read = 0;
+        Iterator<? extends TestResult> iterator = failedTests.iterator();
+        while (bytes < budget && read < maxTests && iterator.hasNext()) {
+            TestResult failedTest = iterator.next();
+            read++;
+            String name = failedTest.getFullDisplayName();
+            int methodDot = name.lastIndexOf('.');
+            // the test class without its package, like before grouping
+            String className = methodDot > 0 ? name.substring(name.lastIndexOf('.', methodDot - 1) + 1, methodDot) : "";
+            TestClass testClass = testClasses.get(className);
+            if (testClass == null) {
+                testClass = new TestClass(className);
+                testClasses.put(className, testClass);
+                bytes += utf8Length(testClass.header);
+            }
+            if (testClass.tests.size() < testsPerClass) {
+                String test = (className.isEmpty() ? "\t" : "\t\t") + name.substring(methodDot + 1)
+                        + " after " + failedTest.getDurationString() + "\n";
+                testClass.tests.add(test);
+                bytes += utf8Length(test);
+            } else {
+                testClass.more++;
+            }
+        }
+
+        Pages pages = new Pages(title, "\n" + failed + " " + title + ":\n");
+        int accounted = 0;
+        for (TestClass testClass : testClasses.values()) {
+            for (String test : testClass.tests) {
+                if (!pages.add(testClass.header, test)) {
+                    return pages.finish(failed - accounted);
+                }
+                accounted++;
+            }
+            if (testClass.more > 0) {
+                if (!pages.add(testClass.header, "\t\t+" + testClass.more + " more\n")) {
+                    return pages.finish(failed - accounted);
+                }
+                accounted += testClass.more;
+            }
+        }
+        return pages.finish(failed - accounted);
+    }
+
+    private static final class TestClass {
+        final String header;
+        final List<String> tests = new ArrayList<>();
+        int more;
+
+        TestClass(String className) {
+            this.header = className.isEmpty() ? "" : "\t" + className + ":\n";
+        }
+    }
+
+    private final class Pages {
+        private final String title;
+        private final List<StringBuilder> pages = new ArrayList<>();
+        private StringBuilder page;
+        private int pageLength;
+        private String pageHeader;
+
+        Pages(String title, String firstLine) {
+            this.title = title;
+            page = new StringBuilder(firstLine);
+            pageLength = utf8Length(firstLine);
+            pages.add(page);
+        }
+
+        /**
+         * Adds a line under the given class header, on a new page if it doesn't fit.
+         *
+         * @return false if there's no page left for it
+         */
+        boolean add(String header, String line) {
+            String lines = header.equals(pageHeader) ? line : header + line;
+            int length = utf8Length(lines);
+            if (pageLength + length > pageBytes && pageLength > 0) {
+                if (pages.size() == maxPages) {
+                    return false;
+                }
+                // the header of the class is repeated on the next page
+                lines = header + line;
+                length = utf8Length(lines);
+                page = new StringBuilder();
+                pageLength = 0;
+                pages.add(page);
+            }
+            page.append(lines);
+            pageLength += length;
+            pageHeader = header;
+            return true;
+        }
+
+        List<String> finish(int notListed) {
+            if (notListed > 0) {
+                page.append("\tand ").append(notListed).append(" more\n");
+            }
+            List<String> rendered = new ArrayList<>(pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                rendered.add(i == 0 ? pages.get(i).toString()
+                        : title + ", page " + (i + 1) + " of " + pages.size() + ":\n" + pages.get(i));
+            }
+            return rendered;
+        }
+    }
+
+    private static int utf8Length(String string) {
+        int length = string.length();
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c >= 0x800) {
+                // surrogate pairs take four bytes, two for each of their characters
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
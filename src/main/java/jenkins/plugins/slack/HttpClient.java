@@ -1,7 +1,20 @@
 package jenkins.plugins.slack;
 
 import hudson.ProxyConfiguration;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import hudson.util.Secret;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.Credentials;
@@ -9,45 +22,64 @@ import org.apache.http.auth.NTCredentials;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 @Restricted(NoExternalUse.class)
 public class HttpClient {
 
-    public static HttpClientBuilder getCloseableHttpClientBuilder(ProxyConfiguration proxy) {
-        int timeoutInSeconds = 60;
+    private static final Logger logger = Logger.getLogger(HttpClient.class.getName());
 
-        RequestConfig config = RequestConfig.custom()
-                .setConnectTimeout(timeoutInSeconds * 1000)
-                .setConnectionRequestTimeout(timeoutInSeconds * 1000)
-                .setSocketTimeout(timeoutInSeconds * 1000).build();
+    private static final int MAX_CONNECTIONS = Integer.getInteger(HttpClient.class.getName() + ".maxConnections", 50);
+    private static final int MAX_CONNECTIONS_PER_ROUTE = Integer.getInteger(HttpClient.class.getName() + ".maxConnectionsPerRoute", 20);
+    private static final long KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong(HttpClient.class.getName() + ".keepAliveSeconds", 60));
+    private static final long MAX_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong(HttpClient.class.getName() + ".maxIdleSeconds", 30));
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    // requests in flight when the proxy configuration changes finish on the pool they started on, it is
+    // closed once it has no connection leased and no asynchronous request in flight after this long, longer
+    // than a request with its retries takes
+    private static final long RETIRED_POOL_CLOSE_MILLIS = TimeUnit.SECONDS.toMillis(
+            Long.getLong(HttpClient.class.getName() + ".retiredPoolCloseSeconds", 300));
 
+    // use the server's keep-alive hint when there is one, but never hold a connection longer than our own limit
+    private static final ConnectionKeepAliveStrategy KEEP_ALIVE_STRATEGY = (response, context) -> {
+        long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return serverKeepAlive > 0 ? Math.min(serverKeepAlive, KEEP_ALIVE_MILLIS) : KEEP_ALIVE_MILLIS;
+    };
+
+    private static ConnectionPool pool;
+
+    public static HttpClientBuilder getCloseableHttpClientBuilder(ProxyConfiguration proxy) {
         final HttpClientBuilder clientBuilder = HttpClients
                 .custom()
                 .useSystemProperties()
-                .setDefaultRequestConfig(config);
+                .setDefaultRequestConfig(createRequestConfig());
         final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         clientBuilder.setDefaultCredentialsProvider(credentialsProvider);
 
         if (proxy != null) {
-            final HttpHost proxyHost = new HttpHost(proxy.name, proxy.port);
-            final HttpRoutePlanner routePlanner = new NoProxyHostCheckerRoutePlanner(proxy.getNoProxyHost(), proxyHost);
-            clientBuilder.setRoutePlanner(routePlanner);
-
-            String username = proxy.getUserName();
-            Secret secretPassword = proxy.getSecretPassword();
-            String password = Secret.toString(secretPassword);
-            // Consider it to be passed if username specified. Sufficient?
-            if (username != null && !username.trim().isEmpty()) {
-                credentialsProvider.setCredentials(new AuthScope(proxyHost),
-                        createCredentials(username, password));
-            }
+            clientBuilder.setRoutePlanner(createProxyRoutePlanner(proxy, credentialsProvider));
         }
         return clientBuilder;
 
@@ -57,6 +89,121 @@ public class HttpClient {
         return getCloseableHttpClientBuilder(proxy).build();
     }
 
+    /**
+     * Returns the process-wide client backed by the shared connection pool.
+     * The client is shared between all callers and must not be closed.
+     *
+     * @param proxy the current Jenkins proxy configuration, may be null
+     * @return a pooled client for the given proxy configuration
+     */
+    public static CloseableHttpClient getPooledHttpClient(ProxyConfiguration proxy) {
+        return getPool(proxy).client;
+    }
+
+    /**
+     * Returns a client builder that uses the shared connection pool, for callers that need
+     * their own retry handling. Closing a client built from it leaves the pool open.
+     *
+     * @param proxy the current Jenkins proxy configuration, may be null
+     * @return a builder preconfigured with the shared connection pool
+     */
+    public static HttpClientBuilder getPooledHttpClientBuilder(ProxyConfiguration proxy) {
+        return getPooledHttpClientBuilder(proxy, getPool(proxy).connectionManager);
+    }
+
+    private static HttpClientBuilder getPooledHttpClientBuilder(ProxyConfiguration proxy, PoolingHttpClientConnectionManager connectionManager) {
+        return getCloseableHttpClientBuilder(proxy)
+                .setConnectionManager(connectionManager)
+                .setConnectionManagerShared(true)
+                .setKeepAliveStrategy(KEEP_ALIVE_STRATEGY);
+    }
+
+    /**
+     * Returns the process-wide non-blocking client for the given proxy configuration, it is
+     * started on first use. The client is shared between all callers and must not be closed.
+     *
+     * @param proxy the current Jenkins proxy configuration, may be null
+     * @return a started asynchronous client for the given proxy configuration
+     */
+    public static CloseableHttpAsyncClient getPooledHttpAsyncClient(ProxyConfiguration proxy) {
+        return getPool(proxy).getAsyncClient(proxy);
+    }
+
+    private static HttpAsyncClientBuilder getHttpAsyncClientBuilder(ProxyConfiguration proxy) {
+        final HttpAsyncClientBuilder clientBuilder = HttpAsyncClients
+                .custom()
+                .useSystemProperties()
+                .setDefaultRequestConfig(createRequestConfig())
+                .setMaxConnTotal(MAX_CONNECTIONS)
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .setKeepAliveStrategy(KEEP_ALIVE_STRATEGY)
+                .setThreadFactory(new DaemonThreadFactory(new NamingThreadFactory(Executors.defaultThreadFactory(), "Slack async HTTP")));
+        final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        clientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+
+        if (proxy != null) {
+            clientBuilder.setRoutePlanner(createProxyRoutePlanner(proxy, credentialsProvider));
+        }
+        return clientBuilder;
+    }
+
+    private static RequestConfig createRequestConfig() {
+        int timeoutInSeconds = 60;
+
+        return RequestConfig.custom()
+                .setConnectTimeout(timeoutInSeconds * 1000)
+                .setConnectionRequestTimeout(timeoutInSeconds * 1000)
+                .setSocketTimeout(timeoutInSeconds * 1000).build();
+    }
+
+    private static HttpRoutePlanner createProxyRoutePlanner(ProxyConfiguration proxy, CredentialsProvider credentialsProvider) {
+        final HttpHost proxyHost = new HttpHost(proxy.name, proxy.port);
+        final HttpRoutePlanner routePlanner = new NoProxyHostCheckerRoutePlanner(proxy.getNoProxyHost(), proxyHost);
+
+        String username = proxy.getUserName();
+        Secret secretPassword = proxy.getSecretPassword();
+        String password = Secret.toString(secretPassword);
+        // Consider it to be passed if username specified. Sufficient?
+        if (username != null && !username.trim().isEmpty()) {
+            credentialsProvider.setCredentials(new AuthScope(proxyHost),
+                    createCredentials(username, password));
+        }
+        return routePlanner;
+    }
+
+    private static synchronized ConnectionPool getPool(ProxyConfiguration proxy) {
+        List<Object> proxyKey = proxyKey(proxy);
+        if (pool == null || !pool.proxyKey.equals(proxyKey)) {
+            if (pool != null) {
+                logger.fine("Proxy configuration changed, rebuilding Slack connection pool");
+                closeWhenIdle(pool);
+            }
+            pool = new ConnectionPool(proxy, proxyKey);
+        }
+        return pool;
+    }
+
+    /**
+     * Closes a pool that was replaced once the requests that may still use it are done.
+     */
+    private static void closeWhenIdle(ConnectionPool retired) {
+        CompletableFuture.runAsync(() -> {
+            if (retired.connectionManager.getTotalStats().getLeased() > 0 || retired.getAsyncRequestsInFlight() > 0) {
+                closeWhenIdle(retired);
+            } else {
+                retired.shutdown();
+            }
+        }, CompletableFuture.delayedExecutor(RETIRED_POOL_CLOSE_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private static List<Object> proxyKey(ProxyConfiguration proxy) {
+        if (proxy == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(proxy.name, proxy.port, proxy.getNoProxyHost(), proxy.getUserName(),
+                Secret.toString(proxy.getSecretPassword()));
+    }
+
     private static Credentials createCredentials(String userName, String password) {
         if (userName.indexOf('\\') >= 0){
             final String domain = userName.substring(0, userName.indexOf('\\'));
@@ -66,4 +213,130 @@ public class HttpClient {
             return new UsernamePasswordCredentials(userName, password);
         }
     }
+
+    private static final class ConnectionPool {
+        private final List<Object> proxyKey;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final IdleConnectionEvictor connectionEvictor;
+        private final CloseableHttpClient client;
+        private CountingHttpAsyncClient asyncClient;
+
+        ConnectionPool(ProxyConfiguration proxy, List<Object> proxyKey) {
+            this.proxyKey = proxyKey;
+
+            // the builder only honours system properties for connection managers it creates itself
+            Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                    .build();
+            connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+            connectionManager.setMaxTotal(MAX_CONNECTIONS);
+            connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+            connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+            connectionEvictor = new IdleConnectionEvictor(connectionManager, MAX_IDLE_MILLIS, TimeUnit.MILLISECONDS);
+            connectionEvictor.start();
+
+            client = getPooledHttpClientBuilder(proxy, connectionManager).build();
+        }
+
+        synchronized CloseableHttpAsyncClient getAsyncClient(ProxyConfiguration proxy) {
+            // the I/O reactor threads are only started for callers that actually post asynchronously
+            if (asyncClient == null) {
+                asyncClient = new CountingHttpAsyncClient(getHttpAsyncClientBuilder(proxy).build());
+                asyncClient.start();
+            }
+            return asyncClient;
+        }
+
+        synchronized int getAsyncRequestsInFlight() {
+            return asyncClient != null ? asyncClient.inFlight.get() : 0;
+        }
+
+        synchronized void shutdown() {
+            connectionEvictor.shutdown();
+            try {
+                client.close();
+                if (asyncClient != null) {
+                    asyncClient.close();
+                }
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing pooled HttpClient", e);
+            }
+            connectionManager.shutdown();
+        }
+    }
+
+    /**
+     * Counts the requests in flight on the non-blocking client, its connections aren't in the
+     * pool {@link #closeWhenIdle} looks at.
+     */
+    private static final class CountingHttpAsyncClient extends CloseableHttpAsyncClient {
+        private final CloseableHttpAsyncClient client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        CountingHttpAsyncClient(CloseableHttpAsyncClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return client.isRunning();
+        }
+
+        @Override
+        public void start() {
+            client.start();
+        }
+
+        @Override
+        public void close() throws IOException {
+            client.close();
+        }
+
+        @Override
+        public <T> Future<T> execute(HttpAsyncRequestProducer requestProducer, HttpAsyncResponseConsumer<T> responseConsumer,
+                                     HttpContext context, FutureCallback<T> callback) {
+            inFlight.incrementAndGet();
+            try {
+                return client.execute(requestProducer, responseConsumer, context, new FutureCallback<T>() {
+                    @Override
+                    public void completed(T result) {
+                        try {
+                            if (callback != null) {
+                                callback.completed(result);
+                            }
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        try {
+                            if (callback != null) {
+                                callback.failed(e);
+                            }
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        try {
+                            if (callback != null) {
+                                callback.cancelled();
+                            }
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.decrementAndGet();
+                throw e;
+            }
+        }
+    }
 }
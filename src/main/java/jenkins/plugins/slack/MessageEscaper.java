@@ -0,0 +1,269 @@
+package jenkins.plugins.slack;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Escapes text for Slack messages: {@code &}, {@code <} and {@code >} become entities and HTML
+ * links become Slack links, e.g. {@code <a href='target'>test</a>} becomes {@code <'target'|test>}.
+ * <p>
+ * This used to be done with regular expressions and {@link MessageFormat}, for every line of a
+ * message. The scanner gives the same output in one pass, including what {@code MessageFormat}
+ * did to the text: pairs of single quotes become one, lone single quotes are dropped, and links
+ * and braces between them are left as {@code {n}} placeholders. The only thing it doesn't
+ * reproduce is a brace inside an {@code <a>} tag without a link, which {@code MessageFormat} read
+ * as a format element; such text is still escaped the old way.
+ */
+final class MessageEscaper {
+
+    private static final Pattern aTag = Pattern.compile("(?i)<a([^>]+)>(.+?)</a>|([{%])");
+    private static final Pattern href = Pattern.compile("\\s*(?i)href\\s*=\\s*(\"([^\"]*\")|'[^']*'|([^'\">\\s]+))");
+
+    private MessageEscaper() {
+    }
+
+    static String escape(String string) {
+        String escaped = scan(string);
+        return escaped != null ? escaped : legacyEscape(string);
+    }
+
+    /**
+     * @return the escaped text, or null if it has to be escaped the old way
+     */
+    static String scan(String string) {
+        int length = string.length();
+        StringBuilder out = new StringBuilder(length + 16);
+        // the state of MessageFormat, and the number of its placeholders so far
+        boolean inQuote = false;
+        int placeholders = 0;
+
+        int i = 0;
+        while (i < length) {
+            char c = string.charAt(i);
+            if (c == '<') {
+                int tagEnd = tagEnd(string, i);
+                if (tagEnd >= 0) {
+                    int contentStart = string.indexOf('>', i + 2) + 1;
+                    int contentEnd = tagEnd - 4;
+                    int hrefValue = hrefValue(string, i + 2, contentStart - 1);
+                    if (hrefValue >= 0) {
+                        if (inQuote) {
+                            out.append('{').append(placeholders).append('}');
+                        } else {
+                            out.append('<');
+                            appendWithoutDoubleQuotes(out, string, hrefValue, hrefValueEnd(string, hrefValue, contentStart - 1));
+                            out.append('|').append(string, contentStart, contentEnd).append('>');
+                        }
+                        placeholders++;
+                    } else {
+                        // not a link, the tag is kept as text and braces in it aren't placeholders
+                        for (int j = i; j < tagEnd; j++) {
+                            char t = string.charAt(j);
+                            if (t == '{' && !inQuote) {
+                                return null;
+                            }
+                            if (t == '\'') {
+                                if (string.charAt(j + 1) == '\'') {
+                                    // the tag ends with '>', so there's always a next character
+                                    out.append('\'');
+                                    j++;
+                                } else {
+                                    inQuote = !inQuote;
+                                }
+                            } else {
+                                appendEscaped(out, t);
+                            }
+                        }
+                    }
+                    i = tagEnd;
+                    continue;
+                }
+            }
+
+            if (c == '{' || c == '%') {
+                if (inQuote) {
+                    out.append('{').append(placeholders).append('}');
+                } else {
+                    out.append(c);
+                }
+                placeholders++;
+            } else if (c == '\'') {
+                if (i + 1 < length && string.charAt(i + 1) == '\'') {
+                    out.append('\'');
+                    i++;
+                } else {
+                    inQuote = !inQuote;
+                }
+            } else {
+                appendEscaped(out, c);
+            }
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return the end of the {@code <a ...>...</a>} tag starting at the given index, or -1 if there's none
+     */
+    private static int tagEnd(String string, int start) {
+        int length = string.length();
+        if (start + 1 >= length || (string.charAt(start + 1) | 0x20) != 'a') {
+            return -1;
+        }
+        int attributesEnd = string.indexOf('>', start + 2);
+        if (attributesEnd <= start + 2) {
+            return -1;
+        }
+        // the shortest content of at least one character on a single line
+        for (int contentEnd = attributesEnd + 2; contentEnd <= length; contentEnd++) {
+            if (isLineTerminator(string.charAt(contentEnd - 1))) {
+                return -1;
+            }
+            if (isClosingTag(string, contentEnd)) {
+                return contentEnd + 4;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isClosingTag(String string, int index) {
+        return index + 4 <= string.length()
+                && string.charAt(index) == '<'
+                && string.charAt(index + 1) == '/'
+                && (string.charAt(index + 2) | 0x20) == 'a'
+                && string.charAt(index + 3) == '>';
+    }
+
+    /**
+     * @return the start of the value of the first {@code href} attribute between the given indexes, or -1 if there's none
+     */
+    private static int hrefValue(String string, int start, int end) {
+        for (int i = start; i + 4 <= end; i++) {
+            if (!isHref(string, i)) {
+                continue;
+            }
+            int j = skipWhitespace(string, i + 4, end);
+            if (j >= end || string.charAt(j) != '=') {
+                continue;
+            }
+            j = skipWhitespace(string, j + 1, end);
+            if (j < end && hrefValueEnd(string, j, end) > j) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the end of the attribute value starting at the given index, or the index itself if there's no value
+     */
+    private static int hrefValueEnd(String string, int start, int end) {
+        char first = string.charAt(start);
+        if (first == '"' || first == '\'') {
+            int close = string.indexOf(first, start + 1);
+            return close >= 0 && close < end ? close + 1 : start;
+        }
+        int i = start;
+        while (i < end) {
+            char c = string.charAt(i);
+            if (c == '\'' || c == '"' || c == '>' || isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // case insensitive, but only for ASCII like the old pattern
+    private static boolean isHref(String string, int index) {
+        return (string.charAt(index) | 0x20) == 'h'
+                && (string.charAt(index + 1) | 0x20) == 'r'
+                && (string.charAt(index + 2) | 0x20) == 'e'
+                && (string.charAt(index + 3) | 0x20) == 'f';
+    }
+
+    private static int skipWhitespace(String string, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(string.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // \s of java.util.regex
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000b' || c == '\f' || c == '\r';
+    }
+
+    // the characters . doesn't match in java.util.regex
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static void appendWithoutDoubleQuotes(StringBuilder out, String string, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c != '"') {
+                out.append(c);
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, char c) {
+        switch (c) {
+            case '&':
+                out.append("&amp;");
+                break;
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            default:
+                out.append(c);
+                break;
+        }
+    }
+
+    /**
+     * The escaping as it was before the scanner, for text the scanner can't handle.
+     */
+    static String legacyEscape(String string) {
+        StringBuffer pattern = new StringBuffer();
+        Object[] links = extractReplaceLinks(aTag.matcher(string), pattern);
+        return MessageFormat.format(escapeCharacters(pattern.toString()), links);
+    }
+
+    private static String escapeCharacters(String string) {
+        string = string.replace("&", "&amp;");
+        string = string.replace("<", "&lt;");
+        string = string.replace(">", "&gt;");
+
+        return string;
+    }
+
+    private static String[] extractReplaceLinks(Matcher aTag, StringBuffer sb) {
+        int size = 0;
+        List<String> links = new ArrayList<>();
+        while (aTag.find()) {
+            String firstGroup = aTag.group(1);
+            if (firstGroup != null) {
+                Matcher url = href.matcher(firstGroup);
+                if (url.find()) {
+                    aTag.appendReplacement(sb, String.format("{%s}", size++));
+                    links.add(String.format("<%s|%s>", url.group(1).replaceAll("\"", ""), aTag.group(2)));
+                }
+            } else {
+                String escapeThis = aTag.group(3);
+                aTag.appendReplacement(sb, String.format("{%s}", size++));
+                links.add(escapeThis);
+            }
+        }
+        aTag.appendTail(sb);
+        return links.toArray(new String[size]);
+    }
+}
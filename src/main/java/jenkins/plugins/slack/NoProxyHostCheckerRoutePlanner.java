@@ -1,6 +1,10 @@
 package jenkins.plugins.slack;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import hudson.ProxyConfiguration;
+import java.util.List;
+import java.util.Objects;
 import java.util.regex.Pattern;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
@@ -13,35 +17,73 @@ import org.apache.http.protocol.HttpContext;
 
 public class NoProxyHostCheckerRoutePlanner implements HttpRoutePlanner {
 
+    private static final int MAX_REMEMBERED_HOSTS = 1000;
+
+    // a planner is created for every client that is built, the no proxy list they use rarely changes
+    private static volatile NoProxyHosts lastNoProxyHosts = new NoProxyHosts(null);
+
     private DefaultProxyRoutePlanner defaultProxyRoutePlanner = null;
     private DefaultRoutePlanner defaultRoutePlanner = null;
-    private String noProxyHost = null;
+    private final NoProxyHosts noProxyHosts;
 
     public NoProxyHostCheckerRoutePlanner(String noProxyHost, HttpHost host){
         defaultProxyRoutePlanner = new DefaultProxyRoutePlanner(host);
         defaultRoutePlanner = new DefaultRoutePlanner(new DefaultSchemePortResolver());
-        this.noProxyHost = noProxyHost;
+        this.noProxyHosts = NoProxyHosts.of(noProxyHost);
     }
 
     public void setProxy(HttpHost host){
+        // whether a host bypasses the proxy only depends on the no proxy list, the remembered decisions stay valid
         defaultProxyRoutePlanner = new DefaultProxyRoutePlanner(host);
     }
 
     public HttpRoute determineRoute(HttpHost target, HttpRequest request, HttpContext context) throws org.apache.http.HttpException {
-        final String targetHostUri = target.toURI();
-        if(isNoProxyHost(targetHostUri))
+        if(noProxyHosts.isNoProxyHost(target))
             return defaultRoutePlanner.determineRoute(target,request,context);
         return defaultProxyRoutePlanner.determineRoute(target,request,context);
     }
 
-    private boolean isNoProxyHost(String host) {
-        if (host!=null && noProxyHost!=null) {
-            for (Pattern p : ProxyConfiguration.getNoProxyHostPatterns(noProxyHost)) {
+    /**
+     * The compiled patterns of a no proxy list and the decisions made with them for the hosts seen so far.
+     * Changing the list in the proxy configuration replaces both.
+     */
+    static final class NoProxyHosts {
+
+        private final String noProxyHost;
+        private final List<Pattern> patterns;
+        private final Cache<HttpHost, Boolean> decisions = Caffeine.newBuilder()
+                .maximumSize(MAX_REMEMBERED_HOSTS)
+                .build();
+
+        private NoProxyHosts(String noProxyHost) {
+            this.noProxyHost = noProxyHost;
+            this.patterns = ProxyConfiguration.getNoProxyHostPatterns(noProxyHost);
+        }
+
+        static NoProxyHosts of(String noProxyHost) {
+            NoProxyHosts noProxyHosts = lastNoProxyHosts;
+            if (!Objects.equals(noProxyHosts.noProxyHost, noProxyHost)) {
+                noProxyHosts = new NoProxyHosts(noProxyHost);
+                lastNoProxyHosts = noProxyHosts;
+            }
+            return noProxyHosts;
+        }
+
+        boolean isNoProxyHost(HttpHost target) {
+            if (target == null || patterns.isEmpty()) {
+                return false;
+            }
+            return decisions.get(target, this::matches);
+        }
+
+        private boolean matches(HttpHost target) {
+            String host = target.toURI();
+            for (Pattern p : patterns) {
                 if (p.matcher(host).matches()) {
                     return true;
                 }
             }
+            return false;
         }
-        return false;
     }
 }
@@ -0,0 +1,235 @@
+package jenkins.plugins.slack;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.http.HttpEntity;
+
+/**
+ * The fields of a Slack Web API response the plugin uses, read with a streaming parser so large
+ * responses like {@code conversations.list} pages are never held in memory as a whole.
+ * Everything else in the response is skipped.
+ */
+public final class SlackApiResponse {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private boolean ok;
+    private String error;
+    private String ts;
+    private String channel;
+    private String nextCursor;
+    private String userId;
+    private Map<String, String> channelIds = Collections.emptyMap();
+    private Map<String, String> memberIds = Collections.emptyMap();
+
+    private SlackApiResponse() {
+    }
+
+    /**
+     * @param body a response body
+     * @return the fields read from the body
+     * @throws IOException if the body isn't a JSON object
+     */
+    public static SlackApiResponse read(String body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * @param entity the entity of a response, it is consumed
+     * @return the fields read from the entity
+     * @throws IOException if the entity can't be read or isn't a JSON object
+     */
+    public static SlackApiResponse read(HttpEntity entity) throws IOException {
+        // the encoding is detected by the parser, Slack always answers in UTF-8
+        try (InputStream content = entity.getContent(); JsonParser parser = JSON_FACTORY.createParser(content)) {
+            return read(parser);
+        }
+    }
+
+    private static SlackApiResponse read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+        SlackApiResponse response = new SlackApiResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "ok":
+                    response.ok = parser.getValueAsBoolean();
+                    parser.skipChildren();
+                    break;
+                case "error":
+                    response.error = textOrNull(parser, value);
+                    break;
+                case "ts":
+                    response.ts = textOrNull(parser, value);
+                    break;
+                case "channel":
+                    response.channel = textOrNull(parser, value);
+                    break;
+                case "response_metadata":
+                    response.nextCursor = readField(parser, value, "next_cursor");
+                    break;
+                case "user":
+                    response.userId = readField(parser, value, "id");
+                    break;
+                case "channels":
+                    response.channelIds = readChannels(parser, value);
+                    break;
+                case "members":
+                    response.memberIds = readMembers(parser, value);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return response;
+    }
+
+    private static String textOrNull(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static String readField(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken fieldValue = parser.nextToken();
+            if (name.equals(field)) {
+                result = textOrNull(parser, fieldValue);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String> readChannels(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return Collections.emptyMap();
+        }
+        Map<String, String> channelIds = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            String id = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken fieldValue = parser.nextToken();
+                if ("name".equals(field)) {
+                    name = textOrNull(parser, fieldValue);
+                } else if ("id".equals(field)) {
+                    id = textOrNull(parser, fieldValue);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (name != null && id != null) {
+                channelIds.put(name, id);
+            }
+        }
+        return channelIds;
+    }
+
+    private static Map<String, String> readMembers(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return Collections.emptyMap();
+        }
+        Map<String, String> memberIds = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String id = null;
+            String email = null;
+            boolean active = true;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "id":
+                        id = textOrNull(parser, fieldValue);
+                        break;
+                    case "deleted":
+                    case "is_bot":
+                        active = active && !parser.getValueAsBoolean();
+                        parser.skipChildren();
+                        break;
+                    case "profile":
+                        email = readField(parser, fieldValue, "email");
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (active && id != null && email != null) {
+                memberIds.put(email.toLowerCase(Locale.ROOT), id);
+            }
+        }
+        return memberIds;
+    }
+
+    public boolean isOk() {
+        return ok;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getTs() {
+        return ts;
+    }
+
+    /**
+     * @return the channel ID of a posted message
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the cursor of the next page, empty or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return the ID of the user a lookup found
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the channel IDs of a {@code conversations.list} page by channel name, in the order of the page
+     */
+    public Map<String, String> getChannelIds() {
+        return channelIds;
+    }
+
+    /**
+     * @return the user IDs of a {@code users.list} page by lower cased email address, without deleted users and bots
+     */
+    public Map<String, String> getMemberIds() {
+        return memberIds;
+    }
+}
@@ -80,6 +80,7 @@ public class SlackNotifier extends Notifier {
     private boolean notifyRepeatedFailure;
     private boolean includeTestSummary;
     private boolean includeFailedTests;
+    private boolean includeFailedTestChanges;
     private boolean uploadFiles;
     private String artifactIncludes;
     private MatrixTriggerMode matrixTriggerMode;
@@ -252,6 +253,10 @@ public class SlackNotifier extends Notifier {
         return includeFailedTests;
     }
 
+    public boolean getIncludeFailedTestChanges() {
+        return includeFailedTestChanges;
+    }
+
     public boolean getUploadFiles() {
         return uploadFiles;
     }
@@ -366,6 +371,11 @@ public class SlackNotifier extends Notifier {
         this.includeFailedTests = includeFailedTests;
     }
 
+    @DataBoundSetter
+    public void setIncludeFailedTestChanges(boolean includeFailedTestChanges) {
+        this.includeFailedTestChanges = includeFailedTestChanges;
+    }
+
     @DataBoundSetter
     public void setUploadFiles(boolean uploadFiles) {
         this.uploadFiles = uploadFiles;
@@ -583,6 +593,7 @@ public class SlackNotifier extends Notifier {
         final String populatedToken = CredentialsObtainer.getTokenToUse(authTokenCredentialId, abstractBuild.getParent(), authToken);
         return new StandardSlackService(
                 new StandardSlackServiceBuilder()
+                        .withRun(abstractBuild)
                         .withBaseUrl(baseUrl)
                         .withTeamDomain(teamDomain)
                         .withBotUser(botUser)
@@ -591,6 +602,9 @@ public class SlackNotifier extends Notifier {
                         .withUsername(username)
                         .withPopulatedToken(populatedToken)
                         .withSlackUserIdResolver(slackUserIdResolver)
+                        .withQueueNotifications(descriptor.isQueueNotifications())
+                        .withResolveChannelIds(descriptor.isResolveChannelIds())
+                        .withLogger(createLogger(listener))
         );
     }
 
@@ -647,6 +661,8 @@ public class SlackNotifier extends Notifier {
         private String room;
         private String sendAs;
         private SlackUserIdResolver slackUserIdResolver;
+        private boolean queueNotifications;
+        private boolean resolveChannelIds;
 
         public DescriptorImpl() {
             load();
@@ -766,6 +782,24 @@ public class SlackNotifier extends Notifier {
             this.slackUserIdResolver = slackUserIdResolver;
         }
 
+        public boolean isQueueNotifications() {
+            return queueNotifications;
+        }
+
+        @DataBoundSetter
+        public void setQueueNotifications(boolean queueNotifications) {
+            this.queueNotifications = queueNotifications;
+        }
+
+        public boolean isResolveChannelIds() {
+            return resolveChannelIds;
+        }
+
+        @DataBoundSetter
+        public void setResolveChannelIds(boolean resolveChannelIds) {
+            this.resolveChannelIds = resolveChannelIds;
+        }
+
         public DescriptorExtensionList<SlackUserIdResolver, SlackUserIdResolverDescriptor> getSlackUserIdResolverDescriptors() {
             return SlackUserIdResolverDescriptor.all();
         }
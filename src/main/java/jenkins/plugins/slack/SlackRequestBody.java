@@ -0,0 +1,149 @@
+package jenkins.plugins.slack;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import net.sf.json.JSONArray;
+import net.sf.json.util.JSONUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * JSON body of a message posted to one or more rooms. The fields every room shares are encoded to
+ * UTF-8 once, the channel and thread of a room are spliced in front of them when the body for that
+ * room is written, so the message isn't rebuilt or copied for every room.
+ */
+final class SlackRequestBody {
+
+    private static final byte[] LINK_AND_UNFURL_FIELDS =
+            ",\"link_names\":\"1\",\"unfurl_links\":\"true\",\"unfurl_media\":\"true\"".getBytes(StandardCharsets.UTF_8);
+
+    // everything after the room specific fields, each field starting with its comma, and the closing brace
+    private final byte[] sharedFields;
+
+    SlackRequestBody(SlackRequest slackRequest, boolean replyBroadcast, String iconEmoji, String username) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (StringUtils.isNotEmpty(slackRequest.getMessage())) {
+            writeField(out, "text", slackRequest.getMessage());
+        }
+        writeArray(out, "attachments", slackRequest.getAttachments());
+        writeArray(out, "blocks", slackRequest.getBlocks());
+        out.write(LINK_AND_UNFURL_FIELDS, 0, LINK_AND_UNFURL_FIELDS.length);
+        if (StringUtils.isNotEmpty(slackRequest.getTimestamp())) {
+            writeField(out, "ts", slackRequest.getTimestamp());
+        }
+        if (replyBroadcast) {
+            writeField(out, "reply_broadcast", "true");
+        }
+        if (StringUtils.isEmpty(iconEmoji) && StringUtils.isEmpty(username)) {
+            writeField(out, "as_user", "true");
+        } else {
+            if (StringUtils.isNotEmpty(iconEmoji)) {
+                writeField(out, "icon_emoji", iconEmoji);
+            }
+            if (StringUtils.isNotEmpty(username)) {
+                writeField(out, "username", username);
+            }
+        }
+        out.write('}');
+        this.sharedFields = out.toByteArray();
+    }
+
+    /**
+     * @param roomId a channel, optionally followed by the thread to post in, e.g. {@code #general:1543931401.000500}
+     * @return the body to post to the room
+     */
+    RoomEntity forRoom(String roomId) {
+        String channel = roomId;
+        String threadTs = "";
+
+        //thread_ts is passed once with roomId: Ex: roomId:threadTs
+        String[] splitThread = roomId.split("[:]+");
+        if (splitThread.length > 1) {
+            channel = splitThread[0];
+            threadTs = splitThread[1];
+        }
+
+        StringBuilder roomFields = new StringBuilder("{\"channel\":").append(JSONUtils.quote(channel));
+        if (threadTs.length() > 1) {
+            roomFields.append(",\"thread_ts\":").append(JSONUtils.quote(threadTs));
+        }
+        return new RoomEntity(channel, roomFields.toString().getBytes(StandardCharsets.UTF_8), sharedFields);
+    }
+
+    private static void writeField(ByteArrayOutputStream out, String name, String value) {
+        write(out, ',' + JSONUtils.quote(name) + ':' + JSONUtils.quote(value));
+    }
+
+    private static void writeArray(ByteArrayOutputStream out, String name, JSONArray value) {
+        if (value != null && !value.isEmpty()) {
+            write(out, ',' + JSONUtils.quote(name) + ':' + value.toString());
+        }
+    }
+
+    private static void write(ByteArrayOutputStream out, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Repeatable entity writing the room specific fields and the shared ones straight to the connection.
+     */
+    static final class RoomEntity extends AbstractHttpEntity {
+
+        private final String channel;
+        private final byte[] roomFields;
+        private final byte[] sharedFields;
+
+        private RoomEntity(String channel, byte[] roomFields, byte[] sharedFields) {
+            this.channel = channel;
+            this.roomFields = roomFields;
+            this.sharedFields = sharedFields;
+            setContentType(ContentType.APPLICATION_JSON.toString());
+        }
+
+        String getChannel() {
+            return channel;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return roomFields.length + sharedFields.length;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new SequenceInputStream(new ByteArrayInputStream(roomFields), new ByteArrayInputStream(sharedFields));
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(roomFields);
+            out.write(sharedFields);
+            out.flush();
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+
+        /**
+         * @return the JSON body, only meant for logging
+         */
+        @Override
+        public String toString() {
+            return new String(roomFields, StandardCharsets.UTF_8) + new String(sharedFields, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -2,6 +2,10 @@ package jenkins.plugins.slack;
 
 import hudson.FilePath;
 import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import jenkins.plugins.slack.workflow.SlackResponse;
 import net.sf.json.JSONArray;
 
 public interface SlackService {
@@ -17,6 +21,23 @@ public interface SlackService {
 
     boolean publish(String message, JSONArray attachments, String color, String timestamp);
 
+    /**
+     * Publish a message followed by replies in its thread, e.g. what didn't fit in the message.
+     * The default implementation publishes the replies as messages of their own after it.
+     * @param message - The message to publish
+     * @param threadReplies - The replies, in order
+     * @param color - The color of the message and its replies
+     *
+     * @return boolean indicating whether the message and all its replies were published
+     */
+    default boolean publishWithThreadReplies(String message, List<String> threadReplies, String color) {
+        boolean result = publish(message, color);
+        for (String threadReply : threadReplies) {
+            result = publish(threadReply, color) && result;
+        }
+        return result;
+    }
+
     boolean upload(FilePath workspace, String artifactIncludes, TaskListener log);
 
     boolean addReaction(String channelId, String timestamp, String emojiName);
@@ -32,4 +53,43 @@ public interface SlackService {
     boolean removeReaction(String channelId, String timestamp, String emojiName);
 
     String getResponseString();
+
+    /**
+     * Publish a message without holding the calling thread for the Slack round trip.
+     * The default implementation delegates to the blocking {@link #publish(SlackRequest)}.
+     * @param slackRequest - The message to publish
+     *
+     * @return a future completed with the response of the post, or completed exceptionally with an
+     * {@link IOException} when the API request failed
+     */
+    default CompletableFuture<SlackResponse> publishAsync(SlackRequest slackRequest) {
+        if (!publish(slackRequest)) {
+            return CompletableFuture.failedFuture(new IOException("Failed to post to Slack"));
+        }
+        try {
+            return CompletableFuture.completedFuture(SlackResponse.fromResponseString(getResponseString(), this));
+        } catch (org.json.JSONException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Add an emoji reaction to a message without blocking the calling thread.
+     * The default implementation delegates to the blocking {@link #addReaction(String, String, String)}.
+     *
+     * @return a future completed with whether the API request succeeded
+     */
+    default CompletableFuture<Boolean> addReactionAsync(String channelId, String timestamp, String emojiName) {
+        return CompletableFuture.completedFuture(addReaction(channelId, timestamp, emojiName));
+    }
+
+    /**
+     * Remove an emoji reaction from a message without blocking the calling thread.
+     * The default implementation delegates to the blocking {@link #removeReaction(String, String, String)}.
+     *
+     * @return a future completed with whether the API request succeeded
+     */
+    default CompletableFuture<Boolean> removeReactionAsync(String channelId, String timestamp, String emojiName) {
+        return CompletableFuture.completedFuture(removeReaction(channelId, timestamp, emojiName));
+    }
 }
@@ -7,14 +7,30 @@ import hudson.ProxyConfiguration;
 import hudson.Util;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -22,18 +38,29 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
 import jenkins.plugins.slack.cache.SlackChannelIdCache;
+import jenkins.plugins.slack.circuit.SlackCircuitBreaker;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import jenkins.plugins.slack.logging.BuildKey;
+import jenkins.plugins.slack.outbox.OutboxEntry;
+import jenkins.plugins.slack.outbox.SlackOutbox;
 import jenkins.plugins.slack.pipeline.SlackFileRequest;
 import jenkins.plugins.slack.pipeline.SlackUploadFileRunner;
+import jenkins.plugins.slack.ratelimit.SlackRateLimiter;
+import jenkins.plugins.slack.ratelimit.SlackRetryPolicy;
 import jenkins.plugins.slack.user.SlackUserIdResolver;
+import jenkins.plugins.slack.workflow.SlackResponse;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.util.EntityUtils;
 import org.jenkinsci.plugins.plaincredentials.StringCredentials;
 
@@ -42,6 +69,12 @@ public class StandardSlackService implements SlackService {
     private static final Logger logger = Logger.getLogger(StandardSlackService.class.getName());
     static final Pattern JENKINS_CI_HOOK_REGEX = Pattern.compile("https://(?<teamDomain>.*)\\.slack\\.com/services/hooks/jenkins-ci.*");
 
+    private static final int MAX_PARALLEL_POSTS = Integer.getInteger(StandardSlackService.class.getName() + ".maxParallelPosts", 8);
+    // bounded, and the caller posts itself once all threads are busy
+    private static final ExecutorService POST_EXECUTOR = new ThreadPoolExecutor(0, MAX_PARALLEL_POSTS, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), "Slack post"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
     private final Run run;
     private String baseUrl;
     private String teamDomain;
@@ -50,10 +83,18 @@ public class StandardSlackService implements SlackService {
     private final boolean replyBroadcast;
     private final String iconEmoji;
     private final String username;
-    private String responseString;
+    private volatile String responseString;
     private String populatedToken;
     private final boolean notifyCommitters;
     private final SlackUserIdResolver userIdResolver;
+    private final boolean queueNotifications;
+    private final boolean resolveChannelIds;
+    // channel IDs by the configured channel, resolved once for all the messages and uploads of this service
+    private final Map<String, String> resolvedChannelIds = new ConcurrentHashMap<>();
+    private final BuildAwareLogger log;
+    private boolean committerRoomIdsAdded;
+    private final Transport blockingTransport = new BlockingTransport();
+    private final Transport asyncTransport = new AsyncTransport();
 
     /**
      * @deprecated use {@link #StandardSlackService(String, String, boolean, String, boolean, String)} instead}
@@ -148,6 +189,9 @@ public class StandardSlackService implements SlackService {
         this.populatedToken = standardSlackServiceBuilder.populatedToken;
         this.notifyCommitters = standardSlackServiceBuilder.notifyCommitters;
         this.userIdResolver = standardSlackServiceBuilder.userIdResolver;
+        this.queueNotifications = standardSlackServiceBuilder.queueNotifications;
+        this.resolveChannelIds = standardSlackServiceBuilder.resolveChannelIds;
+        this.log = standardSlackServiceBuilder.log;
     }
 
     public static StandardSlackServiceBuilder builder() {
@@ -186,64 +230,181 @@ public class StandardSlackService implements SlackService {
      * @return boolean indicating whether the API request succeeded
      */
     boolean postToSlack(String apiEndpoint, JSONObject body) {
-        boolean result = true;
+        return recordResponse(executePost(apiEndpoint, body.optString("channel", null), createEntity(body)));
+    }
+
+    private PostResult executePost(String apiEndpoint, String channel, HttpEntity entity) {
+        // every step of the blocking transport completes on the calling thread
+        return post(blockingTransport, apiEndpoint, channel, entity, SlackRetryPolicy.forMethod(apiEndpoint)).join();
+    }
+
+    /**
+     * Make an HTTP POST to the Slack API without blocking the calling thread
+     *
+     * @param apiEndpoint - The API endpoint to request, e.g. `chat.postMessage`
+     * @param body - The payload body to be POSTed to the API
+     *
+     * @return future completed with the outcome of the request, it never completes exceptionally
+     */
+    CompletableFuture<PostResult> postToSlackAsync(String apiEndpoint, JSONObject body) {
+        return post(asyncTransport, apiEndpoint, body.optString("channel", null), createEntity(body),
+                SlackRetryPolicy.forMethod(apiEndpoint));
+    }
 
+    /**
+     * Posts with the circuit breaker, rate limit and retry policy of the API method, the same for
+     * both transports.
+     *
+     * @return future completed with the outcome of the request, it never completes exceptionally
+     */
+    private CompletableFuture<PostResult> post(Transport transport, String apiEndpoint, String channel, HttpEntity entity,
+                                               SlackRetryPolicy retryPolicy) {
+        SlackCircuitBreaker circuitBreaker = SlackCircuitBreaker.forToken(populatedToken);
+        if (!circuitBreaker.allowRequest()) {
+            logCircuitOpen(apiEndpoint);
+            return CompletableFuture.completedFuture(PostResult.FAILED);
+        }
+        long waitMillis = SlackRateLimiter.reserve(populatedToken, apiEndpoint, channel);
+        if (waitMillis < 0) {
+            return CompletableFuture.completedFuture(PostResult.FAILED);
+        }
+        if (waitMillis > 0) {
+            logger.fine("Waiting " + waitMillis + "ms for Slack rate limit of " + apiEndpoint);
+        }
+        return transport.delay(waitMillis)
+                .thenCompose(ignored -> transport.execute(createPost(apiEndpoint, entity),
+                        response -> onResponse(apiEndpoint, channel, retryPolicy, circuitBreaker, response),
+                        e -> onFailure(retryPolicy, circuitBreaker, e)))
+                .thenCompose(attempt -> {
+                    if (attempt.result != null) {
+                        logRetryOutcome(retryPolicy, attempt.result.success);
+                        return CompletableFuture.completedFuture(attempt.result);
+                    }
+                    logRetry(retryPolicy, attempt.retryReason, attempt.retryDelayMillis);
+                    return transport.delay(attempt.retryDelayMillis)
+                            .thenCompose(ignored -> post(transport, apiEndpoint, channel, entity, retryPolicy));
+                })
+                // only waiting fails, when the thread is interrupted
+                .exceptionally(e -> PostResult.FAILED);
+    }
+
+    private Attempt onResponse(String apiEndpoint, String channel, SlackRetryPolicy retryPolicy,
+                               SlackCircuitBreaker circuitBreaker, HttpResponse response) {
+        circuitBreaker.onResponse(response);
+        try {
+            SlackRateLimiter.onResponse(populatedToken, apiEndpoint, channel, response);
+            long retryDelayMillis = retryPolicy.nextDelayMillis(response);
+            if (retryDelayMillis < 0) {
+                return Attempt.done(evaluateResponse(response));
+            }
+            EntityUtils.consume(response.getEntity());
+            return Attempt.retry("HTTP " + response.getStatusLine().getStatusCode(), retryDelayMillis);
+        } catch (IOException e) {
+            // Slack answered, reading the answer failed, so the circuit breaker isn't told
+            return retryOrGiveUp(retryPolicy, e);
+        }
+    }
+
+    private static Attempt onFailure(SlackRetryPolicy retryPolicy, SlackCircuitBreaker circuitBreaker, Exception e) {
+        if (e instanceof IOException) {
+            circuitBreaker.onFailure();
+        }
+        return retryOrGiveUp(retryPolicy, e);
+    }
+
+    private static Attempt retryOrGiveUp(SlackRetryPolicy retryPolicy, Exception e) {
+        long retryDelayMillis = retryPolicy.nextDelayMillis(e);
+        if (retryDelayMillis < 0) {
+            logger.log(Level.WARNING, "Error posting to Slack", e);
+            return Attempt.done(PostResult.FAILED);
+        }
+        return Attempt.retry(e.toString(), retryDelayMillis);
+    }
+
+    private static CompletableFuture<Void> after(long delayMillis) {
+        Executor delayedExecutor = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+        return CompletableFuture.runAsync(() -> { }, delayedExecutor);
+    }
+
+    private void logCircuitOpen(String apiEndpoint) {
+        logInfo("Slack is unavailable, not calling %s until it recovers", apiEndpoint);
+    }
+
+    private void logRetry(SlackRetryPolicy retryPolicy, String reason, long delayMillis) {
+        logInfo("Slack %s failed with %s, retry %d of %d in %dms", retryPolicy.getMethod(), reason,
+                retryPolicy.getRetries(), retryPolicy.getMaxRetries(), delayMillis);
+    }
+
+    private void logRetryOutcome(SlackRetryPolicy retryPolicy, boolean success) {
+        if (retryPolicy.getRetries() > 0) {
+            logInfo("Slack %s %s after %d retries", retryPolicy.getMethod(), success ? "succeeded" : "failed",
+                    retryPolicy.getRetries());
+        }
+    }
+
+    private void logInfo(String message, Object... args) {
+        if (log != null) {
+            log.info(BuildKey.format(run), message, args);
+        } else {
+            logger.info(String.format(message, args));
+        }
+    }
+
+    private HttpPost createPost(String apiEndpoint, HttpEntity entity) {
         if (baseUrl != null) {
             correctMisconfigurationOfBaseUrl();
         }
 
-        try (CloseableHttpClient client = getHttpClient()) {
-            HttpPost post;
-            String url;
+        HttpPost post;
+        String url;
 
-            if (!botUser) {
-                url = "https://" + teamDomain + "." + "slack.com" + "/services/hooks/jenkins-ci?token=" + populatedToken;
-                if (!StringUtils.isEmpty(baseUrl)) {
-                    url = baseUrl + populatedToken;
-                }
-                post = new HttpPost(url);
+        if (!botUser) {
+            url = "https://" + teamDomain + "." + "slack.com" + "/services/hooks/jenkins-ci?token=" + populatedToken;
+            if (!StringUtils.isEmpty(baseUrl)) {
+                url = baseUrl + populatedToken;
+            }
+            post = new HttpPost(url);
 
-            } else {
-                url = "https://slack.com/api/" + apiEndpoint;
+        } else {
+            url = "https://slack.com/api/" + apiEndpoint;
 
-                post = new HttpPost(url);
-                post.setHeader("Authorization", "Bearer " + populatedToken);
-            }
+            post = new HttpPost(url);
+            post.setHeader("Authorization", "Bearer " + populatedToken);
+        }
 
-            post.setHeader("Content-Type", "application/json; charset=utf-8");
-            post.setEntity(new StringEntity(body.toString(), StandardCharsets.UTF_8));
-
-            try (CloseableHttpResponse response = client.execute(post)) {
-                int responseCode = response.getStatusLine().getStatusCode();
-                HttpEntity entity = response.getEntity();
-                if (botUser && entity != null) {
-                    responseString = EntityUtils.toString(entity);
-                    try {
-
-                        org.json.JSONObject slackResponse = new org.json.JSONObject(responseString);
-                        result = slackResponse.getBoolean("ok");
-                    } catch (org.json.JSONException ex) {
-                        logger.log(Level.WARNING, "Slack post may have failed.  Invalid JSON response: " + responseString);
-                        result = false;
-                    }
-                }
-                if (responseCode != HttpStatus.SC_OK || !result) {
-                    logger.log(Level.WARNING, "Slack post may have failed. Response: " + responseString);
-                    logger.log(Level.WARNING, "Response Code: " + responseCode);
-                    result = false;
-                } else {
-                    logger.fine("Posting succeeded");
-                }
-            } catch (Exception e) {
-                logger.log(Level.WARNING, "Error posting to Slack", e);
+        post.setHeader("Content-Type", "application/json; charset=utf-8");
+        post.setEntity(entity);
+        return post;
+    }
+
+    private static HttpEntity createEntity(JSONObject body) {
+        return new StringEntity(body.toString(), StandardCharsets.UTF_8);
+    }
+
+    private PostResult evaluateResponse(HttpResponse response) throws IOException {
+        boolean result = true;
+        String body = null;
+        int responseCode = response.getStatusLine().getStatusCode();
+        HttpEntity entity = response.getEntity();
+        if (botUser && entity != null) {
+            body = EntityUtils.toString(entity);
+            try {
+                result = SlackApiResponse.read(body).isOk();
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Slack post may have failed.  Invalid JSON response: " + body);
                 result = false;
-            } finally {
-                post.releaseConnection();
             }
-        } catch (IOException e) {
-            logger.log(Level.WARNING, "Error closing HttpClient", e);
         }
-        return result;
+        // drain whatever is left so the connection can go back to the pool
+        EntityUtils.consume(entity);
+        if (responseCode != HttpStatus.SC_OK || !result) {
+            logger.log(Level.WARNING, "Slack post may have failed. Response: " + body);
+            logger.log(Level.WARNING, "Response Code: " + responseCode);
+            result = false;
+        } else {
+            logger.fine("Posting succeeded");
+        }
+        return new PostResult(result, body);
     }
 
     /**
@@ -260,7 +421,7 @@ public class StandardSlackService implements SlackService {
             for(String roomId : roomIds) {
                 String channelId;
                 try {
-                    channelId = SlackChannelIdCache.getChannelId(populatedToken, roomId);
+                    channelId = resolveChannelId(roomId.split("[:]+")[0]);
                 } catch (ExecutionException | InterruptedException e) {
                     throw new RuntimeException(e);
                 } catch (AbortException e) {
@@ -293,65 +454,281 @@ public class StandardSlackService implements SlackService {
     public boolean publish(SlackRequest slackRequest) {
         boolean result = true;
 
-        try (CloseableHttpClient client = getHttpClient()) {
-            // include committer userIds in roomIds
-            if (botUser && notifyCommitters && userIdResolver != null && run != null) {
-                userIdResolver.setAuthToken(populatedToken);
-                userIdResolver.setHttpClient(client);
-                List<String> userIds = userIdResolver.resolveUserIdsForRun(run);
-                roomIds.addAll(userIds.stream()
-                        .filter(Objects::nonNull)
-                        .distinct()
-                        .map(userId -> "@" + userId)
-                        .collect(Collectors.toList())
-                );
-            }
-        } catch (IOException e) {
-            logger.log(Level.WARNING, "Error closing HttpClient", e);
+        addCommitterRoomIds();
+
+        if (queueNotifications && enqueue(slackRequest)) {
+            return true;
         }
 
-        for (String roomId : roomIds) {
-            String threadTs = "";
+        String apiEndpoint = getApiEndpoint(slackRequest);
+        SlackRequestBody body = createRequestBody(slackRequest);
+        // record the responses in room order so getResponseString() ends up with the last room's response
+        for (PostResult postResult : postToRooms(roomId -> postToRoom(apiEndpoint, body, roomId))) {
+            boolean individualResult = recordResponse(postResult);
+            result = result && individualResult;
+        }
+        return result;
+    }
 
-            //thread_ts is passed once with roomId: Ex: roomId:threadTs
-            String[] splitThread = roomId.split("[:]+");
-            if (splitThread.length > 1) {
-                roomId = splitThread[0];
-                threadTs = splitThread[1];
-            }
-            JSONObject json = slackRequest.getBody();
-            json.put("channel", roomId);
+    /**
+     * Replies in the thread of the message in each room. Webhooks and queued messages don't tell
+     * where the message ended up, their replies follow it as messages of their own.
+     */
+    @Override
+    public boolean publishWithThreadReplies(String message, List<String> threadReplies, String color) {
+        if (!botUser || queueNotifications || threadReplies.isEmpty()) {
+            return SlackService.super.publishWithThreadReplies(message, threadReplies, color);
+        }
+        boolean result = true;
+
+        addCommitterRoomIds();
 
-            if (threadTs.length() > 1) {
-                json.put("thread_ts", threadTs);
+        SlackRequestBody body = createRequestBody(attachmentRequest(message, color));
+        List<SlackRequestBody> replyBodies = threadReplies.stream()
+                // replies are never broadcast, the notification already was
+                .map(threadReply -> new SlackRequestBody(attachmentRequest(threadReply, color), false, iconEmoji, username))
+                .collect(Collectors.toList());
+        for (PostResult postResult : postToRooms(roomId -> postWithThreadReplies(body, replyBodies, roomId))) {
+            boolean individualResult = recordResponse(postResult);
+            result = result && individualResult;
+        }
+        return result;
+    }
+
+    /**
+     * @return the result of the message, failed if one of the replies failed
+     */
+    private PostResult postWithThreadReplies(SlackRequestBody body, List<SlackRequestBody> replyBodies, String roomId) {
+        PostResult postResult = postToRoom("chat.postMessage", body, roomId);
+        if (!postResult.success || postResult.responseString == null) {
+            return postResult;
+        }
+        String threadRoomId;
+        if (roomId.contains(":")) {
+            // already a thread, the replies go below the message
+            threadRoomId = roomId;
+        } else {
+            try {
+                SlackApiResponse response = SlackApiResponse.read(postResult.responseString);
+                if (response.getChannel() == null || response.getTs() == null) {
+                    return postResult;
+                }
+                threadRoomId = response.getChannel() + ":" + response.getTs();
+            } catch (IOException e) {
+                return postResult;
             }
-            if (replyBroadcast) {
-                json.put("reply_broadcast", "true");
+        }
+        for (SlackRequestBody replyBody : replyBodies) {
+            if (!postToRoom("chat.postMessage", replyBody, threadRoomId).success) {
+                return new PostResult(false, postResult.responseString);
             }
-            if (StringUtils.isEmpty(iconEmoji) && StringUtils.isEmpty(username)) {
-                json.put("as_user", "true");
-            } else {
-                if (StringUtils.isNotEmpty(iconEmoji)) {
-                    json.put("icon_emoji", iconEmoji);
+        }
+        return postResult;
+    }
+
+    /**
+     * Posts to every room, fanning out over a bounded pool when there is more than one.
+     * Rooms in the same channel, e.g. a channel and a thread in it, are posted one after another
+     * so Slack receives them in the configured order.
+     *
+     * @return the result for each room, in the order of {@link #roomIds}
+     */
+    private List<PostResult> postToRooms(Function<String, PostResult> postToRoom) {
+        List<String> rooms = resolveRooms();
+        if (rooms.size() == 1) {
+            return Collections.singletonList(postToRoom.apply(rooms.get(0)));
+        }
+
+        Map<String, List<Integer>> roomIndexesByChannel = new LinkedHashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            roomIndexesByChannel.computeIfAbsent(channelOf(rooms.get(i)), key -> new ArrayList<>()).add(i);
+        }
+
+        PostResult[] results = new PostResult[rooms.size()];
+        List<Future<?>> channelPosts = new ArrayList<>();
+        for (List<Integer> roomIndexes : roomIndexesByChannel.values()) {
+            channelPosts.add(POST_EXECUTOR.submit(() -> {
+                for (int roomIndex : roomIndexes) {
+                    results[roomIndex] = postToRoom.apply(rooms.get(roomIndex));
                 }
-                if (StringUtils.isNotEmpty(username)) {
-                    json.put("username", username);
+            }));
+        }
+        for (Future<?> channelPost : channelPosts) {
+            try {
+                channelPost.get();
+            } catch (ExecutionException e) {
+                logger.log(Level.WARNING, "Error posting to Slack", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<PostResult> postResults = new ArrayList<>(results.length);
+        for (PostResult postResult : results) {
+            postResults.add(postResult != null ? postResult : PostResult.FAILED);
+        }
+        return postResults;
+    }
+
+    /**
+     * @return the channel of a room, without the thread
+     */
+    private static String channelOf(String roomId) {
+        return roomId.split("[:]+")[0];
+    }
+
+    /**
+     * Posts to all rooms concurrently on the shared non-blocking client. Rooms in the same channel
+     * are posted one after another, and queued notifications are handed to the outbox, like
+     * {@link #publish(SlackRequest)} does. Resolving committer user IDs, when enabled, still happens
+     * on the calling thread.
+     */
+    @Override
+    public CompletableFuture<SlackResponse> publishAsync(SlackRequest slackRequest) {
+        addCommitterRoomIds();
+
+        if (queueNotifications && enqueue(slackRequest)) {
+            // nothing was posted yet, so there is no response to report
+            return CompletableFuture.completedFuture(new SlackResponse(this));
+        }
+
+        String apiEndpoint = getApiEndpoint(slackRequest);
+        SlackRequestBody body = createRequestBody(slackRequest);
+        List<String> rooms = resolveRooms();
+        List<CompletableFuture<PostResult>> posts = new ArrayList<>(rooms.size());
+        Map<String, CompletableFuture<PostResult>> lastPostByChannel = new HashMap<>();
+        for (String roomId : rooms) {
+            CompletableFuture<PostResult> previousPost = lastPostByChannel.get(channelOf(roomId));
+            CompletableFuture<PostResult> post = previousPost == null
+                    ? postToRoomAsync(apiEndpoint, body, roomId)
+                    : previousPost.exceptionally(e -> PostResult.FAILED).thenCompose(ignored -> postToRoomAsync(apiEndpoint, body, roomId));
+            lastPostByChannel.put(channelOf(roomId), post);
+            posts.add(post);
+        }
+
+        return CompletableFuture.allOf(posts.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<String> failedRooms = new ArrayList<>();
+            String lastResponseString = null;
+            // report the response of the last room, the same one the blocking publish leaves behind
+            for (int i = 0; i < posts.size(); i++) {
+                PostResult postResult = posts.get(i).join();
+                if (!postResult.success) {
+                    failedRooms.add(rooms.get(i));
                 }
+                if (postResult.responseString != null) {
+                    lastResponseString = postResult.responseString;
+                }
+            }
+            if (lastResponseString != null) {
+                responseString = lastResponseString;
             }
+            if (!failedRooms.isEmpty()) {
+                throw new CompletionException(new IOException("Failed to post to Slack room(s) " + String.join(", ", failedRooms)));
+            }
+            return SlackResponse.fromResponseString(lastResponseString, this);
+        });
+    }
+
+    private CompletableFuture<PostResult> postToRoomAsync(String apiEndpoint, SlackRequestBody body, String roomId) {
+        SlackRequestBody.RoomEntity entity = createRoomEntity(body, roomId);
+        return post(asyncTransport, apiEndpoint, entity.getChannel(), entity, SlackRetryPolicy.forMethod(apiEndpoint));
+    }
 
-            String apiEndpoint = "chat.postMessage";
-            String timestamp = slackRequest.getTimestamp();
-            if (StringUtils.isNotEmpty(timestamp)) {
-                json.put("ts", timestamp);
-                apiEndpoint = "chat.update";
+    private boolean enqueue(SlackRequest slackRequest) {
+        List<OutboxEntry> entries = roomIds.stream()
+                .map(roomId -> new OutboxEntry(baseUrl, teamDomain, botUser, roomId, replyBroadcast, iconEmoji, username,
+                        populatedToken, slackRequest))
+                .collect(Collectors.toList());
+        return SlackOutbox.get().enqueue(entries);
+    }
+
+    private void addCommitterRoomIds() {
+        // include committer userIds in roomIds, once for all the messages of this service
+        if (botUser && notifyCommitters && userIdResolver != null && run != null && !committerRoomIdsAdded) {
+            committerRoomIdsAdded = true;
+            userIdResolver.setAuthToken(populatedToken);
+            userIdResolver.setHttpClient(getHttpClient());
+            long startNanos = System.nanoTime();
+            List<String> userIds = userIdResolver.resolveUserIdsForRun(run);
+            if (log != null) {
+                log.info(BuildKey.format(run), "Resolved %d committers to Slack users in %d ms", userIds.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
             }
+            roomIds.addAll(userIds.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .map(userId -> "@" + userId)
+                    .collect(Collectors.toList())
+            );
+        }
+    }
+
+    /**
+     * @return the rooms to post to, with channel names replaced by their IDs when enabled
+     */
+    private List<String> resolveRooms() {
+        if (!resolveChannelIds || !botUser) {
+            return roomIds;
+        }
+        return roomIds.stream().map(this::resolveRoom).collect(Collectors.toList());
+    }
 
-            logger.fine("Posting: to " + roomId + " on " + teamDomain + ":  " + json.toString());
+    /**
+     * Replaces the channel of a room by its ID and keeps the thread, e.g. {@code #builds:1543931401.000500}
+     * becomes {@code C0123456789:1543931401.000500}. The room is kept as it is if the ID can't be found.
+     */
+    private String resolveRoom(String roomId) {
+        int threadSeparator = roomId.indexOf(':');
+        String channel = threadSeparator < 0 ? roomId : roomId.substring(0, threadSeparator);
+        if (channel.startsWith("@")) {
+            // a user, they aren't in the channel ID cache
+            return roomId;
+        }
+        try {
+            String channelId = resolveChannelId(channel);
+            return threadSeparator < 0 ? channelId : channelId + roomId.substring(threadSeparator);
+        } catch (ExecutionException | AbortException | RuntimeException e) {
+            logger.log(Level.FINE, "Could not resolve the ID of Slack channel " + channel + ", posting to it by name", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return roomId;
+    }
 
-            boolean individualResult = postToSlack(apiEndpoint, json);
-            result = result && individualResult;
+    private String resolveChannelId(String channel) throws ExecutionException, InterruptedException, AbortException {
+        String channelId = resolvedChannelIds.get(channel);
+        if (channelId == null) {
+            channelId = SlackChannelIdCache.getChannelId(populatedToken, channel.startsWith("#") ? channel.substring(1) : channel);
+            if (channelId == null) {
+                // not the name of a channel, e.g. a user or an ID already
+                channelId = channel;
+            }
+            resolvedChannelIds.put(channel, channelId);
         }
-        return result;
+        return channelId;
+    }
+
+    private static String getApiEndpoint(SlackRequest slackRequest) {
+        return StringUtils.isNotEmpty(slackRequest.getTimestamp()) ? "chat.update" : "chat.postMessage";
+    }
+
+    private SlackRequestBody createRequestBody(SlackRequest slackRequest) {
+        // the message is encoded once and shared by the bodies of all rooms
+        return new SlackRequestBody(slackRequest, replyBroadcast, iconEmoji, username);
+    }
+
+    private SlackRequestBody.RoomEntity createRoomEntity(SlackRequestBody body, String roomId) {
+        SlackRequestBody.RoomEntity entity = body.forRoom(roomId);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Posting: to " + entity.getChannel() + " on " + teamDomain + ":  " + entity);
+        }
+        return entity;
+    }
+
+    private PostResult postToRoom(String apiEndpoint, SlackRequestBody body, String roomId) {
+        SlackRequestBody.RoomEntity entity = createRoomEntity(body, roomId);
+        return executePost(apiEndpoint, entity.getChannel(), entity);
     }
 
     @Override
@@ -385,6 +762,13 @@ public class StandardSlackService implements SlackService {
         return attachments;
     }
 
+    private SlackRequest attachmentRequest(String message, String color) {
+        return SlackRequest.builder()
+                .withAttachments(prepareAttachments(message, color))
+                .withColor(color)
+                .build();
+    }
+
     @Override
     public boolean publish(String message, JSONArray attachments, String color) {
         return publish(
@@ -438,6 +822,19 @@ public class StandardSlackService implements SlackService {
         return postToSlack("reactions.add", json);
     }
 
+    @Override
+    public CompletableFuture<Boolean> addReactionAsync(String channelId, String timestamp, String emojiName) {
+        JSONObject json = SlackReactionRequest.builder()
+                .withChannelId(channelId)
+                .withTimestamp(timestamp)
+                .withEmojiName(emojiName)
+                .build()
+                .getBody();
+
+        logger.fine("Adding reaction:  " + json.toString());
+        return postToSlackAsync("reactions.add", json).thenApply(this::recordResponse);
+    }
+
     /**
      * Remove an emoji reaction from a message.
      */
@@ -454,6 +851,26 @@ public class StandardSlackService implements SlackService {
         return postToSlack("reactions.remove", json);
     }
 
+    @Override
+    public CompletableFuture<Boolean> removeReactionAsync(String channelId, String timestamp, String emojiName) {
+        JSONObject json = SlackReactionRequest.builder()
+                .withChannelId(channelId)
+                .withTimestamp(timestamp)
+                .withEmojiName(emojiName)
+                .build()
+                .getBody();
+
+        logger.fine("Removing reaction:  " + json.toString());
+        return postToSlackAsync("reactions.remove", json).thenApply(this::recordResponse);
+    }
+
+    private boolean recordResponse(PostResult result) {
+        if (result.responseString != null) {
+            responseString = result.responseString;
+        }
+        return result.success;
+    }
+
     private String getTokenToUse(String authTokenCredentialId, String token) {
         if (!StringUtils.isEmpty(authTokenCredentialId)) {
             StringCredentials credentials = CredentialsObtainer.lookupCredentials(authTokenCredentialId);
@@ -477,14 +894,158 @@ public class StandardSlackService implements SlackService {
         return iconEmoji;
     }
 
+    /**
+     * Returns the shared pooled client, callers must not close it.
+     */
     protected CloseableHttpClient getHttpClient() {
         Jenkins jenkins = Jenkins.getInstanceOrNull();
         ProxyConfiguration proxy = jenkins != null ? jenkins.proxy : null;
-        return HttpClient.getCloseableHttpClient(proxy);
+        return HttpClient.getPooledHttpClient(proxy);
+    }
+
+    /**
+     * Returns the shared non-blocking client, callers must not close it.
+     */
+    protected CloseableHttpAsyncClient getHttpAsyncClient() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        ProxyConfiguration proxy = jenkins != null ? jenkins.proxy : null;
+        return HttpClient.getPooledHttpAsyncClient(proxy);
+    }
+
+    /**
+     * How a request reaches Slack, what happens around it is up to {@link #post}.
+     */
+    private interface Transport {
+
+        /**
+         * @return future completed with what {@code onResponse} or {@code onFailure} made of the request
+         */
+        CompletableFuture<Attempt> execute(HttpPost post, Function<HttpResponse, Attempt> onResponse,
+                                           Function<Exception, Attempt> onFailure);
+
+        /**
+         * @return future completed after the delay, or exceptionally if waiting was interrupted
+         */
+        CompletableFuture<Void> delay(long delayMillis);
+    }
+
+    /**
+     * Holds the calling thread for the request and while waiting.
+     */
+    private final class BlockingTransport implements Transport {
+
+        @Override
+        public CompletableFuture<Attempt> execute(HttpPost post, Function<HttpResponse, Attempt> onResponse,
+                                                  Function<Exception, Attempt> onFailure) {
+            Attempt attempt;
+            try (CloseableHttpResponse response = getHttpClient().execute(post)) {
+                attempt = onResponse.apply(response);
+            } catch (IOException | RuntimeException e) {
+                attempt = onFailure.apply(e);
+            } finally {
+                post.releaseConnection();
+            }
+            return CompletableFuture.completedFuture(attempt);
+        }
+
+        @Override
+        public CompletableFuture<Void> delay(long delayMillis) {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Sends the request on the shared non-blocking client and waits on a timer, no thread is held.
+     */
+    private final class AsyncTransport implements Transport {
+
+        @Override
+        public CompletableFuture<Attempt> execute(HttpPost post, Function<HttpResponse, Attempt> onResponse,
+                                                  Function<Exception, Attempt> onFailure) {
+            CompletableFuture<Attempt> future = new CompletableFuture<>();
+            try {
+                getHttpAsyncClient().execute(post, new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse response) {
+                        try {
+                            future.complete(onResponse.apply(response));
+                        } catch (RuntimeException e) {
+                            future.complete(onFailure.apply(e));
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        future.complete(onFailure.apply(e));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        logger.log(Level.WARNING, "Slack post was cancelled");
+                        future.complete(Attempt.done(PostResult.FAILED));
+                    }
+                });
+            } catch (RuntimeException e) {
+                // e.g. the shared client was shut down because the proxy configuration changed
+                future.complete(onFailure.apply(e));
+            }
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<Void> delay(long delayMillis) {
+            return delayMillis > 0 ? after(delayMillis) : CompletableFuture.completedFuture(null);
+        }
     }
 
     @VisibleForTesting
     String getTeamDomain() {
         return teamDomain;
     }
+
+    /**
+     * Outcome of a single post, kept per request so concurrent posts don't share state.
+     */
+    static final class PostResult {
+        static final PostResult FAILED = new PostResult(false, null);
+
+        final boolean success;
+        final String responseString;
+
+        PostResult(boolean success, String responseString) {
+            this.success = success;
+            this.responseString = responseString;
+        }
+    }
+
+    /**
+     * Outcome of a single request, either the result of the post or a retry.
+     */
+    private static final class Attempt {
+        final PostResult result;
+        final String retryReason;
+        final long retryDelayMillis;
+
+        private Attempt(PostResult result, String retryReason, long retryDelayMillis) {
+            this.result = result;
+            this.retryReason = retryReason;
+            this.retryDelayMillis = retryDelayMillis;
+        }
+
+        static Attempt done(PostResult result) {
+            return new Attempt(result, null, -1);
+        }
+
+        static Attempt retry(String reason, long delayMillis) {
+            return new Attempt(null, reason, delayMillis);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package jenkins.plugins.slack;
 
 import hudson.model.Run;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
 import jenkins.plugins.slack.user.SlackUserIdResolver;
 
 public class StandardSlackServiceBuilder {
@@ -16,6 +17,9 @@ public class StandardSlackServiceBuilder {
     String populatedToken;
     boolean notifyCommitters;
     SlackUserIdResolver userIdResolver;
+    boolean queueNotifications;
+    boolean resolveChannelIds;
+    BuildAwareLogger log;
 
     public StandardSlackServiceBuilder() {
     }
@@ -75,6 +79,41 @@ public class StandardSlackServiceBuilder {
         return this;
     }
 
+    /**
+     * Queue messages in the persistent outbox instead of posting them on the calling thread.
+     * Only for callers that don't need the Slack response, it is not available for queued messages.
+     *
+     * @param queueNotifications whether to queue messages
+     * @return this builder
+     */
+    public StandardSlackServiceBuilder withQueueNotifications(boolean queueNotifications) {
+        this.queueNotifications = queueNotifications;
+        return this;
+    }
+
+    /**
+     * Resolve channel names to IDs through the channel ID cache before posting, so responses, thread IDs
+     * and later updates and reactions all refer to the channel by its ID. Only applies to bot users.
+     *
+     * @param resolveChannelIds whether to resolve channel names
+     * @return this builder
+     */
+    public StandardSlackServiceBuilder withResolveChannelIds(boolean resolveChannelIds) {
+        this.resolveChannelIds = resolveChannelIds;
+        return this;
+    }
+
+    /**
+     * Log retries of failed calls to the build console through the given logger.
+     *
+     * @param log the logger of the build the messages are about
+     * @return this builder
+     */
+    public StandardSlackServiceBuilder withLogger(BuildAwareLogger log) {
+        this.log = log;
+        return this;
+    }
+
     public StandardSlackService build() { return new StandardSlackService(this); }
 
 }
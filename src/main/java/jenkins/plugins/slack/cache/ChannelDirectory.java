@@ -0,0 +1,133 @@
+package jenkins.plugins.slack.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Immutable channel name to ID directory of a workspace. The UTF-8 encoded names are sorted and
+ * packed into a single byte array, the IDs into another one, and names are looked up with a binary
+ * search, so a workspace with hundreds of thousands of channels takes a few arrays instead of a
+ * map node and two strings per channel.
+ */
+public final class ChannelDirectory {
+
+    private final byte[] names;
+    // name i is names[nameOffsets[i]] up to names[nameOffsets[i + 1]], likewise for the IDs
+    private final int[] nameOffsets;
+    private final byte[] ids;
+    private final int[] idOffsets;
+
+    private ChannelDirectory(byte[] names, int[] nameOffsets, byte[] ids, int[] idOffsets) {
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.ids = ids;
+        this.idOffsets = idOffsets;
+    }
+
+    /**
+     * @param channels the channel IDs by name
+     * @return a directory of the channels
+     */
+    public static ChannelDirectory of(Map<String, String> channels) {
+        int size = channels.size();
+        byte[][] encodedNames = new byte[size][];
+        byte[][] encodedIds = new byte[size][];
+        int namesLength = 0;
+        int idsLength = 0;
+        int i = 0;
+        for (Map.Entry<String, String> channel : channels.entrySet()) {
+            encodedNames[i] = channel.getKey().getBytes(StandardCharsets.UTF_8);
+            encodedIds[i] = channel.getValue().getBytes(StandardCharsets.UTF_8);
+            namesLength += encodedNames[i].length;
+            idsLength += encodedIds[i].length;
+            i++;
+        }
+
+        Integer[] order = new Integer[size];
+        for (i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(index -> encodedNames[index], Arrays::compareUnsigned));
+
+        byte[] names = new byte[namesLength];
+        int[] nameOffsets = new int[size + 1];
+        byte[] ids = new byte[idsLength];
+        int[] idOffsets = new int[size + 1];
+        for (i = 0; i < size; i++) {
+            byte[] name = encodedNames[order[i]];
+            byte[] id = encodedIds[order[i]];
+            System.arraycopy(name, 0, names, nameOffsets[i], name.length);
+            nameOffsets[i + 1] = nameOffsets[i] + name.length;
+            System.arraycopy(id, 0, ids, idOffsets[i], id.length);
+            idOffsets[i + 1] = idOffsets[i] + id.length;
+        }
+        return new ChannelDirectory(names, nameOffsets, ids, idOffsets);
+    }
+
+    /**
+     * @param name a channel name
+     * @return the ID of the channel, or null if there's no channel with that name
+     */
+    public String get(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Arrays.compareUnsigned(names, nameOffsets[middle], nameOffsets[middle + 1], key, 0, key.length);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return idAt(middle);
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return nameOffsets.length - 1;
+    }
+
+    /**
+     * @param index from 0 to {@link #size()}, channels are ordered by the UTF-8 bytes of their names
+     * @return the name of the channel
+     */
+    String nameAt(int index) {
+        return new String(names, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index from 0 to {@link #size()}
+     * @return the ID of the channel
+     */
+    String idAt(int index) {
+        return new String(ids, idOffsets[index], idOffsets[index + 1] - idOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChannelDirectory)) {
+            return false;
+        }
+        ChannelDirectory that = (ChannelDirectory) o;
+        return Arrays.equals(names, that.names) && Arrays.equals(nameOffsets, that.nameOffsets)
+                && Arrays.equals(ids, that.ids) && Arrays.equals(idOffsets, that.idOffsets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + Arrays.hashCode(ids);
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelDirectory[" + size() + " channels]";
+    }
+}
@@ -0,0 +1,44 @@
+package jenkins.plugins.slack.cache;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists the channels of every workspace in the channel cache again once a day, at an off-peak hour,
+ * so builds never wait for a workspace to be crawled because its channels have gone stale.
+ */
+@Extension
+public class ChannelDirectorySync extends AsyncPeriodicWork {
+
+    private static final long SYNC_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(
+            Long.getLong(ChannelDirectorySync.class.getName() + ".intervalHours", 24));
+    private static final int OFF_PEAK_HOUR = Integer.getInteger(ChannelDirectorySync.class.getName() + ".offPeakHour", 3);
+
+    public ChannelDirectorySync() {
+        super("Slack channel directory sync");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return SYNC_INTERVAL_MILLIS;
+    }
+
+    @Override
+    public long getInitialDelay() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime next = now.truncatedTo(ChronoUnit.DAYS).withHour(Math.floorMod(OFF_PEAK_HOUR, 24));
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        return ChronoUnit.MILLIS.between(now, next);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws InterruptedException {
+        SlackChannelIdCache.syncKnownWorkspaces(listener);
+    }
+}
@@ -0,0 +1,133 @@
+package jenkins.plugins.slack.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Snapshots of the channel names and IDs of each workspace, one gzipped file per token, so the
+ * channel cache is warm right after a restart. Files are named after a digest of the token, the
+ * token itself is never written to disk.
+ */
+class ChannelSnapshots {
+
+    private static final Logger logger = Logger.getLogger(ChannelSnapshots.class.getName());
+
+    private static final int MAGIC = 0x534c4348;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+
+    ChannelSnapshots(File directory) {
+        this.directory = directory;
+    }
+
+    static String key(String token) {
+        return DigestUtils.sha256Hex(String.valueOf(token));
+    }
+
+    /**
+     * @return the channels of every snapshot that could be read, by {@link #key(String) token digest}
+     */
+    Map<String, ChannelDirectory> readAll() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_SUFFIX));
+        if (files == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, ChannelDirectory> snapshots = new HashMap<>();
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                snapshots.put(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()), read(file.toPath()));
+            } catch (IOException e) {
+                // the next crawl of the workspace writes a new one
+                logger.log(Level.FINE, "Skipping unreadable channel snapshot " + file, e);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * @param token the token the channels were listed with
+     * @return the channels of the snapshot, or null if there is none
+     * @throws IOException if the snapshot can't be read
+     */
+    ChannelDirectory read(String token) throws IOException {
+        try {
+            return read(file(token));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the snapshot of a token.
+     *
+     * @param token the token the channels were listed with
+     * @param channels the channels of the workspace
+     * @throws IOException if the snapshot can't be written
+     */
+    void write(String token, ChannelDirectory channels) throws IOException {
+        Files.createDirectories(directory.toPath());
+        Path target = file(token);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(channels.size());
+            for (int i = 0; i < channels.size(); i++) {
+                out.writeUTF(channels.nameAt(i));
+                out.writeUTF(channels.idAt(i));
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void deleteAll() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_SUFFIX) || name.endsWith(TEMP_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    private Path file(String token) {
+        return new File(directory, key(token) + SNAPSHOT_SUFFIX).toPath();
+    }
+
+    private static ChannelDirectory read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)))) {
+            if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a channel snapshot: " + file);
+            }
+            int size = data.readInt();
+            Map<String, String> channels = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                channels.put(data.readUTF(), data.readUTF());
+            }
+            return ChannelDirectory.of(channels);
+        }
+    }
+}
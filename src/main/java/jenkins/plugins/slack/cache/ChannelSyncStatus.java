@@ -0,0 +1,96 @@
+package jenkins.plugins.slack.cache;
+
+import hudson.Util;
+
+/**
+ * Progress and outcome of listing the channels of a workspace, shown on the Slack status page.
+ */
+public final class ChannelSyncStatus {
+
+    private final String name;
+
+    private boolean running;
+    private long startedAtMillis;
+    private int pages;
+    private int channels;
+    private long lastCompletedAtMillis;
+    private long lastDurationMillis = -1;
+    private String lastError;
+
+    ChannelSyncStatus(String name) {
+        this.name = name;
+    }
+
+    synchronized void start() {
+        running = true;
+        startedAtMillis = System.currentTimeMillis();
+        pages = 0;
+        channels = 0;
+        lastError = null;
+    }
+
+    synchronized void onPage(int channelsSoFar) {
+        pages++;
+        channels = channelsSoFar;
+    }
+
+    synchronized void onError(String error) {
+        lastError = error;
+    }
+
+    synchronized void finish() {
+        running = false;
+        lastCompletedAtMillis = System.currentTimeMillis();
+        lastDurationMillis = lastCompletedAtMillis - startedAtMillis;
+    }
+
+    /**
+     * @return the start of the digest of the token the channels are listed with
+     */
+    public String getName() {
+        return name;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the pages listed by the running sync, or by the last one
+     */
+    public synchronized int getPages() {
+        return pages;
+    }
+
+    /**
+     * @return the channels listed by the running sync, or by the last one
+     */
+    public synchronized int getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return how long ago the last sync completed, or null if none has yet
+     */
+    public synchronized String getLastCompleted() {
+        return lastCompletedAtMillis == 0 ? null : Util.getTimeSpanString(System.currentTimeMillis() - lastCompletedAtMillis);
+    }
+
+    /**
+     * @return how long the last sync took, or null if none has completed yet
+     */
+    public synchronized String getLastDuration() {
+        return lastDurationMillis < 0 ? null : Util.getTimeSpanString(lastDurationMillis);
+    }
+
+    public synchronized long getLastDurationMillis() {
+        return lastDurationMillis;
+    }
+
+    /**
+     * @return the error of the running or last sync, null if there was none
+     */
+    public synchronized String getLastError() {
+        return lastError;
+    }
+}
@@ -1,18 +1,38 @@
 package jenkins.plugins.slack.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.AbortException;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 import jenkins.plugins.slack.HttpClient;
+import jenkins.plugins.slack.SlackApiResponse;
+import jenkins.plugins.slack.ratelimit.SlackRateLimiter;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -24,23 +44,83 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 public class SlackChannelIdCache {
 
     private static final String UPLOAD_FAILED_TEMPLATE = "Failed to retrieve channel names. Response: ";
     private static final Logger logger = Logger.getLogger(SlackChannelIdCache.class.getName());
 
-    // cache that includes all channel names and IDs for each workspace used
-    private static final LoadingCache<String, Map<String, String>> CHANNEL_METADATA_CACHE = Caffeine.newBuilder()
+    // refreshes list the channels on their own threads, never on the one of a build
+    private static final Executor CRAWLER = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Slack channel directory sync"));
+
+    // cache that includes all channel names and IDs for each workspace used, kept fresh by ChannelDirectorySync
+    private static final LoadingCache<String, ChannelDirectory> CHANNEL_METADATA_CACHE = Caffeine.newBuilder()
+            .maximumSize(100)
+            .executor(CRAWLER)
+            .build(new CacheLoader<String, ChannelDirectory>() {
+                @Override
+                public ChannelDirectory load(String token) {
+                    return loadChannels(token);
+                }
+
+                @Override
+                public ChannelDirectory reload(String token, ChannelDirectory oldValue) {
+                    return populateCache(token);
+                }
+            });
+
+    // snapshots read from disk when Jenkins starts, by token digest, each one is used once to load the cache
+    private static final ConcurrentMap<String, ChannelDirectory> STARTUP_SNAPSHOTS = new ConcurrentHashMap<>();
+    // tokens whose channels were loaded from a snapshot and haven't been listed again since
+    private static final Set<String> UNVERIFIED_TOKENS = ConcurrentHashMap.newKeySet();
+
+    // a name that is missing from the cache triggers a crawl of the whole workspace, a misspelled channel
+    // in a shared library must not do that for every build
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(
+            Long.getLong(SlackChannelIdCache.class.getName() + ".minRefreshIntervalSeconds", 60));
+    private static final Duration UNKNOWN_CHANNEL_TTL = Duration.ofSeconds(
+            Long.getLong(SlackChannelIdCache.class.getName() + ".unknownChannelSeconds", 300));
+    private static final ConcurrentMap<String, CompletableFuture<ChannelDirectory>> IN_FLIGHT_REFRESHES = new ConcurrentHashMap<>();
+    private static final Cache<String, Boolean> RECENT_REFRESHES = Caffeine.newBuilder()
             .maximumSize(100)
-            .refreshAfterWrite(Duration.ofHours(24))
-            .build(SlackChannelIdCache::populateCache);
+            .expireAfterWrite(MIN_REFRESH_INTERVAL)
+            .build();
+    private static final Cache<String, Boolean> UNKNOWN_CHANNELS = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(UNKNOWN_CHANNEL_TTL)
+            .build();
+    private static final ConcurrentMap<String, ChannelSyncStatus> SYNC_STATUS = new ConcurrentHashMap<>();
     private static final int MAX_RETRIES = 10;
+    private static final String CONVERSATIONS_LIST_METHOD = "conversations.list";
+    // the largest page conversations.list supports
+    private static final int PAGE_SIZE = 1000;
+
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void loadSnapshots() {
+        Map<String, ChannelDirectory> snapshots = snapshots().readAll();
+        STARTUP_SNAPSHOTS.putAll(snapshots);
+        if (!snapshots.isEmpty()) {
+            logger.fine("Loaded the channels of " + snapshots.size() + " Slack workspaces from disk");
+        }
+    }
+
+    private static ChannelSnapshots snapshots() {
+        return new ChannelSnapshots(new File(Jenkins.get().getRootDir(), "slack-channel-cache"));
+    }
 
-    private static Map<String, String> populateCache(String token) {
-        HttpClientBuilder closeableHttpClientBuilder = HttpClient.getCloseableHttpClientBuilder(Jenkins.get().getProxy())
+    private static ChannelDirectory loadChannels(String token) {
+        ChannelDirectory snapshot = STARTUP_SNAPSHOTS.remove(ChannelSnapshots.key(token));
+        if (snapshot == null) {
+            return populateCache(token);
+        }
+        // the snapshot is served right away and revalidated in the background on first use
+        UNVERIFIED_TOKENS.add(token);
+        return snapshot;
+    }
+
+    private static ChannelDirectory populateCache(String token) {
+        HttpClientBuilder closeableHttpClientBuilder = HttpClient.getPooledHttpClientBuilder(Jenkins.get().getProxy())
                 .setRetryHandler((exception, executionCount, context) -> executionCount <= MAX_RETRIES)
                 .setServiceUnavailableRetryStrategy(new ServiceUnavailableRetryStrategy() {
 
@@ -56,6 +136,7 @@ public class SlackChannelIdCache {
                                 retryInterval = Long.parseLong(firstHeader.getValue()) * 1000L;
                                 logger.info(String.format("Rate limited by Slack, retrying in %dms", retryInterval));
                             }
+                            SlackRateLimiter.penalize(token, CONVERSATIONS_LIST_METHOD, null, SlackRateLimiter.getRetryAfterNanos(response));
                         }
                         return shouldRetry;
                     }
@@ -65,74 +146,168 @@ public class SlackChannelIdCache {
                         return retryInterval;
                     }
                 });
+        String key = ChannelSnapshots.key(token);
+        ChannelSyncStatus status = SYNC_STATUS.computeIfAbsent(key, ignored -> new ChannelSyncStatus(key.substring(0, 8)));
+        status.start();
+        ChannelDirectory channels;
         try (CloseableHttpClient client = closeableHttpClientBuilder.build()) {
-            return convertChannelNameToId(client, token, new HashMap<>(), null);
+            channels = listChannels(client, token, status);
         } catch (IOException e) {
+            status.onError(e.getMessage());
             throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            status.onError(e.getMessage());
+            throw e;
+        } finally {
+            status.finish();
+        }
+        UNVERIFIED_TOKENS.remove(token);
+        if (channels.size() > 0) {
+            try {
+                snapshots().write(token, channels);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not save the Slack channels to disk, they will be listed again after a restart", e);
+            }
         }
+        return channels;
     }
 
     public static String getChannelId(String botUserToken, String channelName) throws ExecutionException, InterruptedException, AbortException {
-        Map<String, String> channelNameToIdMap = CHANNEL_METADATA_CACHE.get(botUserToken);
+        ChannelDirectory channelNameToIdMap = CHANNEL_METADATA_CACHE.get(botUserToken);
+        if (UNVERIFIED_TOKENS.remove(botUserToken)) {
+            refreshChannels(botUserToken, false);
+        }
         String channelId = channelNameToIdMap.get(channelName);
+        if (channelId != null) {
+            return channelId;
+        }
+
+        String unknownChannelKey = botUserToken + '\n' + channelName;
+        if (UNKNOWN_CHANNELS.getIfPresent(unknownChannelKey) != null) {
+            return null;
+        }
 
         // most likely is that a new channel has been created since the last cache refresh
         // or a typo in the channel name, a bit risky in larger workspaces but shouldn't happen too often
+        CompletableFuture<ChannelDirectory> refresh = refreshChannels(botUserToken, false);
+        if (refresh == null) {
+            // listed too recently to list again, the name may still turn up on the next crawl
+            return null;
+        }
+        try {
+            channelNameToIdMap = refresh.get();
+        } catch (CompletionException e) {
+            throw new AbortException("Failed uploading file to slack, channel not found: " + channelName + ", error: " + e.getMessage());
+        }
+
+        channelId = channelNameToIdMap.get(channelName);
         if (channelId == null) {
+            UNKNOWN_CHANNELS.put(unknownChannelKey, Boolean.TRUE);
+        }
+        return channelId;
+    }
+
+    /**
+     * Lists the channels of every workspace in the cache again, one workspace at a time.
+     *
+     * @param listener where the progress is reported
+     * @throws InterruptedException if interrupted while waiting for a workspace
+     */
+    static void syncKnownWorkspaces(TaskListener listener) throws InterruptedException {
+        for (String token : new ArrayList<>(CHANNEL_METADATA_CACHE.asMap().keySet())) {
+            String name = ChannelSnapshots.key(token).substring(0, 8);
             try {
-                CompletableFuture<Map<String, String>> newResult = CHANNEL_METADATA_CACHE.refresh(botUserToken);
-                channelNameToIdMap = newResult.get();
-            } catch (CompletionException e) {
-                throw new AbortException("Failed uploading file to slack, channel not found: " + channelName + ", error: " + e.getMessage());
+                ChannelDirectory channels = refreshChannels(token, true).get();
+                listener.getLogger().println("Listed " + channels.size() + " channels for token " + name);
+            } catch (ExecutionException e) {
+                listener.error("Failed to list the channels for token " + name + ": " + e.getCause());
             }
-
-            channelId = channelNameToIdMap.get(channelName);
         }
-
-        return channelId;
     }
 
-    private static Map<String, String> convertChannelNameToId(CloseableHttpClient client, String token, Map<String, String> channels, String cursor) throws IOException {
-        RequestBuilder requestBuilder = RequestBuilder.get("https://slack.com/api/conversations.list")
-                .addHeader("Authorization", "Bearer " + token)
-                .addParameter("exclude_archived", "true")
-                .addParameter("types", "public_channel,private_channel");
+    /**
+     * @return the sync status of every workspace listed since the start, by name
+     */
+    public static List<ChannelSyncStatus> getSyncStatus() {
+        List<ChannelSyncStatus> status = new ArrayList<>(SYNC_STATUS.values());
+        status.sort(Comparator.comparing(ChannelSyncStatus::getName));
+        return status;
+    }
 
-        if (cursor != null) {
-            requestBuilder.addParameter("cursor", cursor);
+    /**
+     * Refreshes the channels of a workspace because a name is missing, they were loaded from disk or
+     * the daily sync is due. Concurrent callers share the same refresh, and unless forced a workspace
+     * is refreshed at most once per {@link #MIN_REFRESH_INTERVAL}.
+     *
+     * @return the channels once the workspace has been listed, or null if it was listed too recently
+     * to list it again
+     */
+    @CheckForNull
+    private static CompletableFuture<ChannelDirectory> refreshChannels(String botUserToken, boolean force) {
+        CompletableFuture<ChannelDirectory> refresh = new CompletableFuture<>();
+        CompletableFuture<ChannelDirectory> inFlight = IN_FLIGHT_REFRESHES.putIfAbsent(botUserToken, refresh);
+        if (inFlight != null) {
+            return inFlight;
         }
-        ResponseHandler<JSONObject> standardResponseHandler = getStandardResponseHandler();
-        JSONObject result = client.execute(requestBuilder.build(), standardResponseHandler);
 
-        if (!result.getBoolean("ok")) {
-            logger.warning("Couldn't convert channel name to ID in Slack: " + result);
-            return channels;
+        if (!force && RECENT_REFRESHES.getIfPresent(botUserToken) != null) {
+            IN_FLIGHT_REFRESHES.remove(botUserToken, refresh);
+            return null;
         }
 
-        JSONArray channelsArray = result.getJSONArray("channels");
-        for (int i = 0; i < channelsArray.length(); i++) {
-            JSONObject channel = channelsArray.getJSONObject(i);
+        RECENT_REFRESHES.put(botUserToken, Boolean.TRUE);
+        CHANNEL_METADATA_CACHE.refresh(botUserToken).whenComplete((channels, e) -> {
+            IN_FLIGHT_REFRESHES.remove(botUserToken, refresh);
+            if (e != null) {
+                refresh.completeExceptionally(e);
+            } else {
+                refresh.complete(channels);
+            }
+        });
+        return refresh;
+    }
+
+    private static ChannelDirectory listChannels(CloseableHttpClient client, String token, ChannelSyncStatus status) throws IOException {
+        Map<String, String> channels = new HashMap<>();
+        ResponseHandler<SlackApiResponse> standardResponseHandler = getStandardResponseHandler();
+        String cursor = null;
+        do {
+            if (!SlackRateLimiter.acquire(token, CONVERSATIONS_LIST_METHOD)) {
+                throw new IOException("Timed out waiting for the Slack rate limit of " + CONVERSATIONS_LIST_METHOD);
+            }
+            RequestBuilder requestBuilder = RequestBuilder.get("https://slack.com/api/" + CONVERSATIONS_LIST_METHOD)
+                    .addHeader("Authorization", "Bearer " + token)
+                    .addParameter("exclude_archived", "true")
+                    .addParameter("types", "public_channel,private_channel")
+                    .addParameter("limit", String.valueOf(PAGE_SIZE));
 
-            String channelName = channel.getString("name");
-            String channelId = channel.getString("id");
+            if (cursor != null) {
+                requestBuilder.addParameter("cursor", cursor);
+            }
+            SlackApiResponse result = client.execute(requestBuilder.build(), standardResponseHandler);
 
-            channels.put(channelName, channelId);
-        }
+            if (result == null) {
+                throw new IOException("Couldn't list the channels in Slack: empty response");
+            }
+            if (!result.isOk()) {
+                // a partial listing would replace the cached channels and the snapshot on disk
+                throw new IOException("Couldn't list the channels in Slack: " + result.getError());
+            }
 
-        cursor = result.getJSONObject("response_metadata").getString("next_cursor");
-        if (cursor != null && !cursor.isEmpty()) {
-            return convertChannelNameToId(client, token, channels, cursor);
-        }
+            channels.putAll(result.getChannelIds());
+            status.onPage(channels.size());
+            cursor = result.getNextCursor();
+        } while (cursor != null && !cursor.isEmpty());
 
-        return channels;
+        return ChannelDirectory.of(channels);
     }
 
-    private static ResponseHandler<JSONObject> getStandardResponseHandler() {
+    private static ResponseHandler<SlackApiResponse> getStandardResponseHandler() {
         return response -> {
             int status = response.getStatusLine().getStatusCode();
             if (status >= 200 && status < 300) {
                 HttpEntity entity = response.getEntity();
-                return entity != null ? new JSONObject(EntityUtils.toString(entity)) : null;
+                return entity != null ? SlackApiResponse.read(entity) : null;
             } else {
                 String errorMessage = UPLOAD_FAILED_TEMPLATE + status + " " + EntityUtils.toString(response.getEntity());
                 throw new HttpStatusCodeException(response.getStatusLine().getStatusCode(), errorMessage);
@@ -155,5 +330,14 @@ public class SlackChannelIdCache {
 
     public static void clearCache() {
         CHANNEL_METADATA_CACHE.invalidateAll();
+        RECENT_REFRESHES.invalidateAll();
+        UNKNOWN_CHANNELS.invalidateAll();
+        STARTUP_SNAPSHOTS.clear();
+        UNVERIFIED_TOKENS.clear();
+        try {
+            snapshots().deleteAll();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not delete the Slack channels saved to disk", e);
+        }
     }
 }
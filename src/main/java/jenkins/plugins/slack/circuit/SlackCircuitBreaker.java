@@ -0,0 +1,161 @@
+package jenkins.plugins.slack.circuit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.HttpResponse;
+
+/**
+ * Circuit breaker for the calls made with a single Slack token, i.e. to a single workspace.
+ * After a number of consecutive failures, errors or 5xx responses, the breaker opens and calls
+ * fail fast instead of each waiting for the connection or socket timeout. Once the open period is
+ * over a single trial call is let through: if it succeeds the breaker closes again, otherwise it
+ * stays open for another period.
+ * <p>
+ * Responses that show Slack is up, even unsuccessful ones like {@code channel_not_found} or a 429,
+ * count as successes.
+ */
+public final class SlackCircuitBreaker {
+
+    private static final Logger logger = Logger.getLogger(SlackCircuitBreaker.class.getName());
+
+    private static final int FAILURE_THRESHOLD = Integer.getInteger(SlackCircuitBreaker.class.getName() + ".failureThreshold", 5);
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(
+            Long.getLong(SlackCircuitBreaker.class.getName() + ".openSeconds", 60));
+
+    private static final Cache<String, SlackCircuitBreaker> BREAKERS = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private long trialStartedAtNanos;
+    private long rejectedCalls;
+
+    SlackCircuitBreaker(String name, int failureThreshold, long openNanos) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * @param token the token the calls are made with
+     * @return the breaker shared by all calls made with the token
+     */
+    public static SlackCircuitBreaker forToken(String token) {
+        // keyed by a digest so the tokens themselves aren't kept around, the start is enough to tell workspaces apart
+        String key = DigestUtils.sha256Hex(String.valueOf(token));
+        return BREAKERS.get(key, ignored -> new SlackCircuitBreaker(key.substring(0, 8), FAILURE_THRESHOLD, OPEN_NANOS));
+    }
+
+    /**
+     * @return the breakers of all tokens used recently, by name
+     */
+    public static List<SlackCircuitBreaker> getAll() {
+        List<SlackCircuitBreaker> breakers = new ArrayList<>(BREAKERS.asMap().values());
+        breakers.sort(Comparator.comparing(SlackCircuitBreaker::getName));
+        return breakers;
+    }
+
+    /**
+     * Asks for permission to make a call. Every permitted call has to be followed by
+     * {@link #onResponse(HttpResponse)} or {@link #onFailure()}.
+     *
+     * @return false if the call should fail fast
+     */
+    public boolean allowRequest() {
+        return allowRequest(System.nanoTime());
+    }
+
+    synchronized boolean allowRequest(long nowNanos) {
+        switch (state) {
+            case OPEN:
+                if (nowNanos - openedAtNanos < openNanos) {
+                    rejectedCalls++;
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialStartedAtNanos = nowNanos;
+                return true;
+            case HALF_OPEN:
+                // a trial that never reported back must not keep the breaker half open forever
+                if (nowNanos - trialStartedAtNanos < openNanos) {
+                    rejectedCalls++;
+                    return false;
+                }
+                trialStartedAtNanos = nowNanos;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Records the response to a permitted call.
+     *
+     * @param response the response Slack sent
+     */
+    public void onResponse(HttpResponse response) {
+        if (response.getStatusLine().getStatusCode() >= 500) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    /**
+     * Records a permitted call that failed without a usable response, e.g. because of a timeout.
+     */
+    public void onFailure() {
+        onFailure(System.nanoTime());
+    }
+
+    synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Slack is reachable again for token " + name + ", closing the circuit breaker");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void onFailure(long nowNanos) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warning("Slack calls for token " + name + " failed " + consecutiveFailures
+                    + " times in a row, failing fast for " + TimeUnit.NANOSECONDS.toSeconds(openNanos) + "s");
+            state = State.OPEN;
+            openedAtNanos = nowNanos;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+}
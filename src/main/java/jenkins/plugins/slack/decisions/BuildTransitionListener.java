@@ -0,0 +1,32 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import jenkins.plugins.slack.SlackNotifier;
+
+/**
+ * Keeps the {@link BuildTransitions} of jobs that notify Slack up to date.
+ */
+@Extension
+public class BuildTransitionListener extends RunListener<AbstractBuild<?, ?>> {
+
+    @Override
+    public void onCompleted(AbstractBuild<?, ?> build, TaskListener listener) {
+        if (notifiesSlack(build.getProject())) {
+            BuildTransitions.record(build);
+        }
+    }
+
+    @Override
+    public void onDeleted(AbstractBuild<?, ?> build) {
+        // also when the job doesn't notify anymore, it might again later
+        BuildTransitions.invalidate(build);
+    }
+
+    private static boolean notifiesSlack(AbstractProject<?, ?> project) {
+        return project.getPublishersList().get(SlackNotifier.class) != null;
+    }
+}
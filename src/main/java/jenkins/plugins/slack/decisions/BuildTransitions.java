@@ -0,0 +1,241 @@
+package jenkins.plugins.slack.decisions;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.XmlFile;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * What notifications need to know about the earlier builds of a job: the last build that wasn't
+ * aborted, the last successful build and the build after it, i.e. the one that broke the job.
+ * Kept up to date by {@link BuildTransitionListener} as builds complete and saved in the job's
+ * directory, so notifications don't have to load the builds of long aborted or failing streaks.
+ * <p>
+ * The transitions are only used while every build up to the one they were last updated with is
+ * complete, otherwise the builds are walked like before.
+ */
+public final class BuildTransitions {
+
+    private static final Logger logger = Logger.getLogger(BuildTransitions.class.getName());
+
+    static final String FILE_NAME = "slack-build-transitions.xml";
+
+    // jobs are canonical, weak keys compare them by identity and let deleted jobs go
+    private static final Cache<Job<?, ?>, Optional<BuildTransitions>> TRANSITIONS = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    // every build up to this one is complete and accounted for
+    private final int lastNumber;
+    private final int lastNonAbortedNumber;
+    private final String lastNonAbortedResult;
+    private final int lastSuccessNumber;
+    private final int brokenNumber;
+    private final long brokenEndMillis;
+
+    private BuildTransitions(int lastNumber, int lastNonAbortedNumber, String lastNonAbortedResult,
+                             int lastSuccessNumber, int brokenNumber, long brokenEndMillis) {
+        this.lastNumber = lastNumber;
+        this.lastNonAbortedNumber = lastNonAbortedNumber;
+        this.lastNonAbortedResult = lastNonAbortedResult;
+        this.lastSuccessNumber = lastSuccessNumber;
+        this.brokenNumber = brokenNumber;
+        this.brokenEndMillis = brokenEndMillis;
+    }
+
+    /**
+     * @param build a build that is being notified about
+     * @return the transitions before the build, or null if they aren't known and the builds have to be walked
+     */
+    @CheckForNull
+    public static BuildTransitions before(Run<?, ?> build) {
+        Job<?, ?> job = build.getParent();
+        Run<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild == null || lastBuild.getNumber() != build.getNumber()) {
+            // a later build started, notifications look at the builds before that one
+            return null;
+        }
+        Run<?, ?> previousBuild = build.getPreviousBuild();
+        if (previousBuild == null) {
+            return null;
+        }
+        BuildTransitions transitions = get(job);
+        return transitions != null && transitions.lastNumber == previousBuild.getNumber() ? transitions : null;
+    }
+
+    /**
+     * @return the number of the last build that wasn't aborted, 0 if there's none
+     */
+    public int getLastNonAbortedNumber() {
+        return lastNonAbortedNumber;
+    }
+
+    @CheckForNull
+    public Result getLastNonAbortedResult() {
+        return lastNonAbortedResult != null ? Result.fromString(lastNonAbortedResult) : null;
+    }
+
+    /**
+     * @return the number of the last successful build, 0 if there's none
+     */
+    public int getLastSuccessNumber() {
+        return lastSuccessNumber;
+    }
+
+    /**
+     * @return the number of the build after the last successful one, 0 if there's none
+     */
+    public int getBrokenNumber() {
+        return brokenNumber;
+    }
+
+    /**
+     * @return when the build after the last successful one ended
+     */
+    public long getBrokenEndMillis() {
+        return brokenEndMillis;
+    }
+
+    static void record(Run<?, ?> build) {
+        Job<?, ?> job = build.getParent();
+        TRANSITIONS.asMap().compute(job, (ignored, current) -> {
+            BuildTransitions known = current != null ? current.orElse(null) : load(job);
+            Run<?, ?> previousBuild = build.getPreviousBuild();
+            BuildTransitions updated;
+            if (known != null && previousBuild != null && known.lastNumber == previousBuild.getNumber()) {
+                updated = known.after(build);
+            } else {
+                // the first build, builds completed out of order or were deleted
+                updated = walk(build);
+            }
+            save(job, updated);
+            return Optional.ofNullable(updated);
+        });
+    }
+
+    /**
+     * Forgets the transitions of the job of a deleted build if they point at it or at a build after
+     * it. Old builds discarded after most builds of long histories leave them as they are.
+     */
+    static void invalidate(Run<?, ?> deletedBuild) {
+        Job<?, ?> job = deletedBuild.getParent();
+        int number = deletedBuild.getNumber();
+        TRANSITIONS.asMap().compute(job, (ignored, current) -> {
+            BuildTransitions known = current != null ? current.orElse(null) : load(job);
+            if (known != null && !known.dependsOn(number)) {
+                return Optional.of(known);
+            }
+            save(job, null);
+            return Optional.empty();
+        });
+    }
+
+    private boolean dependsOn(int number) {
+        return number == lastNonAbortedNumber || number == brokenNumber || number >= lastNumber
+                || (lastSuccessNumber > 0 && number >= lastSuccessNumber);
+    }
+
+    @CheckForNull
+    static BuildTransitions get(Job<?, ?> job) {
+        return TRANSITIONS.get(job, ignored -> Optional.ofNullable(load(job))).orElse(null);
+    }
+
+    /**
+     * @return the transitions once the given build, the one after {@link #lastNumber}, completed
+     */
+    BuildTransitions after(Run<?, ?> build) {
+        Result result = build.getResult();
+        int number = build.getNumber();
+        if (result == Result.SUCCESS) {
+            return new BuildTransitions(number, number, name(result), number, 0, 0);
+        }
+        boolean aborted = result == Result.ABORTED;
+        boolean broke = lastSuccessNumber > 0 && brokenNumber == 0;
+        return new BuildTransitions(number,
+                aborted ? lastNonAbortedNumber : number,
+                aborted ? lastNonAbortedResult : name(result),
+                lastSuccessNumber,
+                broke ? number : brokenNumber,
+                broke ? build.getStartTimeInMillis() + build.getDuration() : brokenEndMillis);
+    }
+
+    /**
+     * Walks the builds back from the given one, once, up to the last successful build.
+     *
+     * @return the transitions, or null if an earlier build is still running
+     */
+    @CheckForNull
+    static BuildTransitions walk(Run<?, ?> build) {
+        int lastNonAbortedNumber = 0;
+        String lastNonAbortedResult = null;
+        Run<?, ?> broken = null;
+        Run<?, ?> run = build;
+        while (run != null) {
+            if (run != build && run.isBuilding()) {
+                return null;
+            }
+            Result result = run.getResult();
+            if (lastNonAbortedNumber == 0 && result != Result.ABORTED) {
+                lastNonAbortedNumber = run.getNumber();
+                lastNonAbortedResult = name(result);
+            }
+            if (result == Result.SUCCESS) {
+                return new BuildTransitions(build.getNumber(), lastNonAbortedNumber, lastNonAbortedResult, run.getNumber(),
+                        broken != null ? broken.getNumber() : 0,
+                        broken != null ? broken.getStartTimeInMillis() + broken.getDuration() : 0);
+            }
+            broken = run;
+            run = run.getPreviousBuild();
+        }
+        return new BuildTransitions(build.getNumber(), lastNonAbortedNumber, lastNonAbortedResult, 0, 0, 0);
+    }
+
+    @CheckForNull
+    private static String name(@CheckForNull Result result) {
+        return result != null ? result.toString() : null;
+    }
+
+    @CheckForNull
+    private static XmlFile file(Job<?, ?> job) {
+        File rootDir = job.getRootDir();
+        return rootDir != null ? new XmlFile(new File(rootDir, FILE_NAME)) : null;
+    }
+
+    @CheckForNull
+    private static BuildTransitions load(Job<?, ?> job) {
+        XmlFile file = file(job);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            return (BuildTransitions) file.read();
+        } catch (IOException | ClassCastException e) {
+            logger.log(Level.FINE, "Ignoring unreadable build transitions of " + job.getFullName(), e);
+            return null;
+        }
+    }
+
+    private static void save(Job<?, ?> job, @CheckForNull BuildTransitions transitions) {
+        XmlFile file = file(job);
+        if (file == null) {
+            return;
+        }
+        try {
+            if (transitions != null) {
+                file.write(transitions);
+            } else {
+                file.delete();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not save the build transitions of " + job.getFullName(), e);
+        }
+    }
+}
@@ -4,14 +4,26 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import hudson.model.AbstractBuild;
 import hudson.model.Result;
 import hudson.tasks.junit.TestResultAction;
+import java.util.function.Supplier;
 import jenkins.plugins.slack.logging.BuildKey;
 
 public class Context {
     private final AbstractBuild<?, ?> current;
-    private final AbstractBuild<?, ?> previous;
+    private final Supplier<Result> previousResult;
+    private final Supplier<AbstractBuild<?, ?>> previous;
 
     public Context(AbstractBuild<?, ?> current, AbstractBuild<?, ?> previous) {
+        this(current, () -> previous != null ? previous.getResult() : null, () -> previous);
+    }
+
+    /**
+     * @param current the build being notified about
+     * @param previousResult the result of the previous build
+     * @param previous the previous build, only loaded for its test results
+     */
+    public Context(AbstractBuild<?, ?> current, Supplier<Result> previousResult, Supplier<AbstractBuild<?, ?>> previous) {
         this.current = current;
+        this.previousResult = previousResult;
         this.previous = previous;
     }
 
@@ -20,10 +32,8 @@ public class Context {
     }
 
     public Result previousResultOrSuccess() {
-        if (previous == null || previous.getResult() == null) {
-            return Result.SUCCESS;
-        }
-        return previous.getResult();
+        Result result = previousResult.get();
+        return result != null ? result : Result.SUCCESS;
     }
 
     @Nullable
@@ -49,7 +59,16 @@ public class Context {
 
     @Nullable
     public TestResultAction getPreviousTestResult() {
-        return getTestResult(previous);
+        return getTestResult(previous.get());
+    }
+
+    /**
+     * @return the failed tests the previous build kept, without loading its test results
+     */
+    @Nullable
+    public FailedTestHashes getPreviousFailedTestHashes() {
+        AbstractBuild<?, ?> build = previous.get();
+        return build != null ? build.getAction(FailedTestHashes.class) : null;
     }
 
     @Nullable
@@ -0,0 +1,152 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.model.Result;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import jenkins.plugins.slack.SlackNotifier;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+
+/**
+ * The notification preferences of a {@link SlackNotifier} compiled into a decision for every pair
+ * of previous and current build result, so deciding whether to notify about a build is a lookup
+ * instead of evaluating every {@link Condition}. Only changed test failures need more than the
+ * results, they are looked at when the table says so.
+ * <p>
+ * Decides like {@link NotificationConditions#create}. There are only 512 combinations of
+ * preferences, the table of each is built once and shared.
+ */
+public final class DecisionTable {
+
+    // the conditions, in the order NotificationConditions evaluates them
+    private static final String[] CONDITIONS = {
+            "OnAborted", "OnEveryFailure", "OnSingleFailure", "OnRepeatedFailure", "OnNotBuilt",
+            "OnBackToNormal", "OnSuccess", "OnRegression", "OnUnstable"
+    };
+    static final int ON_ABORTED = 1;
+    static final int ON_EVERY_FAILURE = 1 << 1;
+    static final int ON_SINGLE_FAILURE = 1 << 2;
+    static final int ON_REPEATED_FAILURE = 1 << 3;
+    static final int ON_NOT_BUILT = 1 << 4;
+    static final int ON_BACK_TO_NORMAL = 1 << 5;
+    static final int ON_SUCCESS = 1 << 6;
+    static final int ON_REGRESSION = 1 << 7;
+    static final int ON_UNSTABLE = 1 << 8;
+
+    // by Result.ordinal, builds without a result come after them
+    private static final Result[] RESULTS = {
+            Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED
+    };
+    private static final int NO_RESULT = RESULTS.length;
+    private static final int CURRENT_RESULTS = RESULTS.length + 1;
+
+    private static final byte SKIP = 0;
+    private static final byte SEND = 1;
+    private static final byte SEND_IF_TESTS_REGRESSED = 2;
+
+    private static final String TESTS_REGRESSED =
+            "will send OnRegressionNotification because test failures changed and user preferences allow it";
+
+    private static final AtomicReferenceArray<DecisionTable> TABLES = new AtomicReferenceArray<>(1 << CONDITIONS.length);
+
+    private final byte[] decisions;
+    private final String[] explanations;
+
+    private DecisionTable(int preferences) {
+        decisions = new byte[RESULTS.length * CURRENT_RESULTS];
+        explanations = new String[decisions.length];
+        for (Result previous : RESULTS) {
+            for (int current = 0; current < CURRENT_RESULTS; current++) {
+                int cell = previous.ordinal * CURRENT_RESULTS + current;
+                int matched = matches(previous, current < NO_RESULT ? RESULTS[current] : null);
+                int allowed = matched & preferences;
+                if (allowed != 0) {
+                    decisions[cell] = SEND;
+                    explanations[cell] = "will send " + CONDITIONS[Integer.numberOfTrailingZeros(allowed)]
+                            + "Notification because build matches and user preferences allow it";
+                    continue;
+                }
+                // a regression by result would have been allowed above
+                decisions[cell] = (preferences & ON_REGRESSION) != 0 ? SEND_IF_TESTS_REGRESSED : SKIP;
+                explanations[cell] = matched != 0
+                        ? "will NOT send notification - build matches " + names(matched) + " but user preferences do not allow it"
+                        : "does not match any notification condition";
+            }
+        }
+    }
+
+    public static DecisionTable forPreferences(SlackNotifier preferences) {
+        int mask = mask(preferences);
+        DecisionTable table = TABLES.get(mask);
+        if (table == null) {
+            // building one twice is harmless
+            table = new DecisionTable(mask);
+            TABLES.set(mask, table);
+        }
+        return table;
+    }
+
+    /**
+     * @param context the build being notified about
+     * @param key the key of the build in the log, see {@link Context#currentKey()}
+     * @param log where to explain the decision
+     * @return whether to notify about the build
+     */
+    public boolean test(Context context, String key, BuildAwareLogger log) {
+        Result current = context.currentResult();
+        int cell = context.previousResultOrSuccess().ordinal * CURRENT_RESULTS
+                + (current != null ? current.ordinal : NO_RESULT);
+        switch (decisions[cell]) {
+            case SEND:
+                log.info(key, explanations[cell]);
+                return true;
+            case SEND_IF_TESTS_REGRESSED:
+                if (OnRegression.moreTestFailuresThanPrevious(context)) {
+                    log.info(key, TESTS_REGRESSED);
+                    return true;
+                }
+                log.debug(key, explanations[cell]);
+                return false;
+            default:
+                log.debug(key, explanations[cell]);
+                return false;
+        }
+    }
+
+    static int mask(SlackNotifier preferences) {
+        return (preferences.getNotifyAborted() ? ON_ABORTED : 0)
+                | (preferences.getNotifyEveryFailure() ? ON_EVERY_FAILURE : 0)
+                | (preferences.getNotifyFailure() ? ON_SINGLE_FAILURE : 0)
+                | (preferences.getNotifyRepeatedFailure() ? ON_REPEATED_FAILURE : 0)
+                | (preferences.getNotifyNotBuilt() ? ON_NOT_BUILT : 0)
+                | (preferences.getNotifyBackToNormal() ? ON_BACK_TO_NORMAL : 0)
+                | (preferences.getNotifySuccess() ? ON_SUCCESS : 0)
+                | (preferences.getNotifyRegression() ? ON_REGRESSION : 0)
+                | (preferences.getNotifyUnstable() ? ON_UNSTABLE : 0);
+    }
+
+    /**
+     * @return the conditions met by the results alone, see the {@code isMetBy} of each condition
+     */
+    private static int matches(Result previous, Result current) {
+        Result currentOrSuccess = current != null ? current : Result.SUCCESS;
+        return (current == Result.ABORTED ? ON_ABORTED : 0)
+                | (current == Result.FAILURE ? ON_EVERY_FAILURE : 0)
+                | (current == Result.FAILURE && previous != Result.FAILURE ? ON_SINGLE_FAILURE : 0)
+                | (current == Result.FAILURE && previous == Result.FAILURE ? ON_REPEATED_FAILURE : 0)
+                | (current == Result.NOT_BUILT ? ON_NOT_BUILT : 0)
+                | (current == Result.SUCCESS && (previous == Result.FAILURE || previous == Result.UNSTABLE) ? ON_BACK_TO_NORMAL : 0)
+                | (current == Result.SUCCESS ? ON_SUCCESS : 0)
+                | (currentOrSuccess.isWorseThan(previous) ? ON_REGRESSION : 0)
+                | (current == Result.UNSTABLE ? ON_UNSTABLE : 0);
+    }
+
+    private static String names(int conditions) {
+        StringJoiner names = new StringJoiner(", ");
+        for (int i = 0; i < CONDITIONS.length; i++) {
+            if ((conditions & 1 << i) != 0) {
+                names.add(CONDITIONS[i]);
+            }
+        }
+        return names.toString();
+    }
+}
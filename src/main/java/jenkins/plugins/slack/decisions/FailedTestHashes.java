@@ -0,0 +1,88 @@
+package jenkins.plugins.slack.decisions;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.AbstractBuild;
+import hudson.model.InvisibleAction;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The failed tests of a build as sorted 64 bit hashes of their IDs, kept with the build so the
+ * next build can tell which of its failures are new and which tests were fixed without loading
+ * the test results of this one.
+ */
+public final class FailedTestHashes extends InvisibleAction {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] hashes;
+
+    FailedTestHashes(long[] hashes) {
+        this.hashes = hashes;
+    }
+
+    /**
+     * Keeps the hashes of the failed tests of a build that has test results.
+     *
+     * @return the hashes, or null if the build has no test results
+     */
+    @CheckForNull
+    public static FailedTestHashes record(AbstractBuild<?, ?> build) {
+        AbstractTestResultAction<?> action = build.getAction(AbstractTestResultAction.class);
+        if (action == null) {
+            return null;
+        }
+        FailedTestHashes failedTests = of(action.getFailedTests());
+        build.addOrReplaceAction(failedTests);
+        return failedTests;
+    }
+
+    public static FailedTestHashes of(List<? extends TestResult> failedTests) {
+        long[] hashes = new long[failedTests.size()];
+        int i = 0;
+        for (TestResult failedTest : failedTests) {
+            hashes[i++] = hash(failedTest.getId());
+        }
+        Arrays.sort(hashes);
+        return new FailedTestHashes(hashes);
+    }
+
+    public boolean contains(TestResult test) {
+        return Arrays.binarySearch(hashes, hash(test.getId())) >= 0;
+    }
+
+    /**
+     * @return the number of hashes of this build that the other one doesn't have
+     */
+    public int countMissingFrom(FailedTestHashes other) {
+        int missing = 0;
+        int j = 0;
+        for (long hash : hashes) {
+            while (j < other.hashes.length && other.hashes[j] < hash) {
+                j++;
+            }
+            if (j == other.hashes.length || other.hashes[j] != hash) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    public int size() {
+        return hashes.length;
+    }
+
+    // FNV-1a over the UTF-8 bytes of the ID
+    static long hash(String id) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -33,7 +33,7 @@ public class OnRegression implements Condition {
         return log;
     }
 
-    private boolean moreTestFailuresThanPrevious(Context context) {
+    static boolean moreTestFailuresThanPrevious(Context context) {
         TestResultAction currentTestResult = context.getCurrentTestResult();
         TestResultAction previousTestResult = context.getPreviousTestResult();
         if (currentTestResult != null && previousTestResult != null) {
@@ -46,7 +46,7 @@ public class OnRegression implements Condition {
         return false;
     }
 
-    private Set<String> getFailedTestIds(TestResultAction testResultAction) {
+    private static Set<String> getFailedTestIds(TestResultAction testResultAction) {
         Set<String> failedTestIds = new HashSet<>();
         List<? extends TestResult> failedTests = testResultAction.getFailedTests();
         for (TestResult result : failedTests) {
@@ -2,6 +2,8 @@ package jenkins.plugins.slack.logging;
 
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
+import hudson.model.Job;
+import hudson.model.Run;
 
 public class BuildKey {
     private static final String UNKNOWN = "[UNKNOWN BUILD]";
@@ -16,4 +18,15 @@ public class BuildKey {
         }
         return "[" + project.getFullDisplayName() + " #" + build.getNumber() + "]";
     }
+
+    public static String format(Run<?, ?> run) {
+        if (run == null) {
+            return UNKNOWN;
+        }
+        Job<?, ?> job = run.getParent();
+        if (job == null) {
+            return UNKNOWN;
+        }
+        return "[" + job.getFullDisplayName() + " #" + run.getNumber() + "]";
+    }
 }
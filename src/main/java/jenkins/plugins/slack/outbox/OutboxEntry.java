@@ -0,0 +1,155 @@
+package jenkins.plugins.slack.outbox;
+
+import hudson.util.Secret;
+import java.util.UUID;
+import jenkins.plugins.slack.SlackRequest;
+import jenkins.plugins.slack.StandardSlackService;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * A notification for a single room waiting in the {@link SlackOutbox}, together with everything
+ * needed to rebuild the service that delivers it after a restart.
+ */
+public class OutboxEntry {
+
+    private final String id;
+    private final long createdAt;
+    private final String baseUrl;
+    private final String teamDomain;
+    private final boolean botUser;
+    private final String roomId;
+    private final boolean replyBroadcast;
+    private final String iconEmoji;
+    private final String username;
+    private final String populatedToken;
+    private final SlackRequest slackRequest;
+
+    public OutboxEntry(String baseUrl, String teamDomain, boolean botUser, String roomId, boolean replyBroadcast,
+                       String iconEmoji, String username, String populatedToken, SlackRequest slackRequest) {
+        this(UUID.randomUUID().toString(), System.currentTimeMillis(), baseUrl, teamDomain, botUser, roomId,
+                replyBroadcast, iconEmoji, username, populatedToken, slackRequest);
+    }
+
+    private OutboxEntry(String id, long createdAt, String baseUrl, String teamDomain, boolean botUser, String roomId,
+                        boolean replyBroadcast, String iconEmoji, String username, String populatedToken,
+                        SlackRequest slackRequest) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.baseUrl = baseUrl;
+        this.teamDomain = teamDomain;
+        this.botUser = botUser;
+        this.roomId = roomId;
+        this.replyBroadcast = replyBroadcast;
+        this.iconEmoji = iconEmoji;
+        this.username = username;
+        this.populatedToken = populatedToken;
+        this.slackRequest = slackRequest;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * @return the room of this entry together with its workspace, entries for the same one are
+     * delivered in order
+     */
+    String getDestination() {
+        return baseUrl + '\n' + teamDomain + '\n' + populatedToken + '\n' + roomId;
+    }
+
+    public SlackRequest getSlackRequest() {
+        return slackRequest;
+    }
+
+    /**
+     * Creates a service that posts this entry straight to Slack, bypassing the outbox.
+     *
+     * @return a service for the single room of this entry
+     */
+    StandardSlackService createSlackService() {
+        return StandardSlackService.builder()
+                .withBaseUrl(baseUrl)
+                .withTeamDomain(teamDomain)
+                .withBotUser(botUser)
+                .withRoomId(roomId)
+                .withReplyBroadcast(replyBroadcast)
+                .withIconEmoji(iconEmoji)
+                .withUsername(username)
+                .withPopulatedToken(populatedToken)
+                .build();
+    }
+
+    JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("createdAt", createdAt);
+        putIfNotNull(json, "baseUrl", baseUrl);
+        putIfNotNull(json, "teamDomain", teamDomain);
+        json.put("botUser", botUser);
+        putIfNotNull(json, "roomId", roomId);
+        json.put("replyBroadcast", replyBroadcast);
+        putIfNotNull(json, "iconEmoji", iconEmoji);
+        putIfNotNull(json, "username", username);
+        // the journal lives on disk, so the token is stored the same way as any other Jenkins secret
+        putIfNotNull(json, "token", populatedToken != null ? Secret.fromString(populatedToken).getEncryptedValue() : null);
+
+        JSONObject request = new JSONObject();
+        putIfNotNull(request, "message", slackRequest.getMessage());
+        putIfNotNull(request, "color", slackRequest.getColor());
+        putIfNotNull(request, "timestamp", slackRequest.getTimestamp());
+        putIfNotNull(request, "attachments", slackRequest.getAttachments());
+        putIfNotNull(request, "blocks", slackRequest.getBlocks());
+        json.put("request", request);
+        return json;
+    }
+
+    static OutboxEntry fromJson(JSONObject json) {
+        JSONObject request = json.getJSONObject("request");
+        SlackRequest slackRequest = SlackRequest.builder()
+                .withMessage(optString(request, "message"))
+                .withColor(optString(request, "color"))
+                .withTimestamp(optString(request, "timestamp"))
+                .withAttachments(optArray(request, "attachments"))
+                .withBlocks(optArray(request, "blocks"))
+                .build();
+
+        String token = optString(json, "token");
+        return new OutboxEntry(
+                json.getString("id"),
+                json.getLong("createdAt"),
+                optString(json, "baseUrl"),
+                optString(json, "teamDomain"),
+                json.optBoolean("botUser"),
+                optString(json, "roomId"),
+                json.optBoolean("replyBroadcast"),
+                optString(json, "iconEmoji"),
+                optString(json, "username"),
+                token != null ? Secret.toString(Secret.fromString(token)) : null,
+                slackRequest
+        );
+    }
+
+    private static void putIfNotNull(JSONObject json, String key, Object value) {
+        if (value != null) {
+            json.put(key, value);
+        }
+    }
+
+    private static String optString(JSONObject json, String key) {
+        return json.has(key) ? json.getString(key) : null;
+    }
+
+    private static JSONArray optArray(JSONObject json, String key) {
+        return json.has(key) ? json.getJSONArray(key) : null;
+    }
+}
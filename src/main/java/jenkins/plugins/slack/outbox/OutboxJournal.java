@@ -0,0 +1,237 @@
+package jenkins.plugins.slack.outbox;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+
+/**
+ * Append-only journal of the notifications waiting in the outbox, split into numbered segment files.
+ * Every line is one JSON record: either an entry that was queued or the acknowledgement that it was
+ * delivered. Segments are compacted into a new one holding only the pending entries on open and
+ * whenever the current segment grows past its size limit.
+ */
+class OutboxJournal {
+
+    private static final Logger logger = Logger.getLogger(OutboxJournal.class.getName());
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String OP_ADD = "add";
+    private static final String OP_ACK = "ack";
+
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final int maxPendingEntries;
+
+    // insertion ordered, so replay and compaction keep the order the notifications were queued in
+    private final LinkedHashMap<String, OutboxEntry> pending = new LinkedHashMap<>();
+    private long segmentNumber;
+    private long segmentBytes;
+    private FileOutputStream out;
+
+    OutboxJournal(File directory, long maxSegmentBytes, int maxPendingEntries) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxPendingEntries = maxPendingEntries;
+    }
+
+    /**
+     * Replays the existing segments and compacts them into a fresh one.
+     *
+     * @return the entries that were never acknowledged, oldest first
+     * @throws IOException if the journal directory cannot be read or written
+     */
+    synchronized List<OutboxEntry> open() throws IOException {
+        Files.createDirectories(directory.toPath());
+        File[] leftovers = directory.listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX));
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                Files.deleteIfExists(leftover.toPath());
+            }
+        }
+
+        List<File> segments = listSegments();
+        for (File segment : segments) {
+            replay(segment);
+        }
+        segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+        compact();
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Durably appends the given entries, all or none of them.
+     *
+     * @param entries the entries to queue
+     * @return false if the outbox is full
+     * @throws IOException if the journal cannot be written
+     */
+    synchronized boolean append(Collection<OutboxEntry> entries) throws IOException {
+        if (pending.size() + entries.size() > maxPendingEntries) {
+            return false;
+        }
+        StringBuilder records = new StringBuilder();
+        for (OutboxEntry entry : entries) {
+            records.append(addRecord(entry));
+        }
+        write(records.toString());
+        for (OutboxEntry entry : entries) {
+            pending.put(entry.getId(), entry);
+        }
+        compactIfFull();
+        return true;
+    }
+
+    /**
+     * Records that an entry no longer needs delivering.
+     *
+     * @param id the id of the delivered or abandoned entry
+     * @throws IOException if the journal cannot be written
+     */
+    synchronized void acknowledge(String id) throws IOException {
+        if (pending.remove(id) == null) {
+            return;
+        }
+        JSONObject record = new JSONObject();
+        record.put("op", OP_ACK);
+        record.put("id", id);
+        write(record.toString() + '\n');
+        compactIfFull();
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void replay(File segment) throws IOException {
+        // read line by line so only the pending entries are ever held in memory
+        try (BufferedReader reader = Files.newBufferedReader(segment.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    JSONObject record = JSONObject.fromObject(line);
+                    String id = record.getString("id");
+                    if (OP_ACK.equals(record.getString("op"))) {
+                        pending.remove(id);
+                    } else {
+                        pending.put(id, OutboxEntry.fromJson(record.getJSONObject("entry")));
+                        dropOldestOverCapacity();
+                    }
+                } catch (JSONException e) {
+                    // a crash while appending leaves a torn last line behind
+                    logger.log(Level.FINE, "Skipping unreadable record in " + segment, e);
+                }
+            }
+        }
+    }
+
+    private void dropOldestOverCapacity() {
+        Iterator<OutboxEntry> oldest = pending.values().iterator();
+        while (pending.size() > maxPendingEntries && oldest.hasNext()) {
+            OutboxEntry dropped = oldest.next();
+            oldest.remove();
+            logger.warning("Slack outbox is full, dropping queued notification to " + dropped.getRoomId());
+        }
+    }
+
+    private void write(String records) throws IOException {
+        if (out == null) {
+            throw new IOException("Slack outbox journal is closed");
+        }
+        byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        // the build moves on as soon as this returns, so the record has to be on disk by then
+        out.getChannel().force(false);
+        segmentBytes += bytes.length;
+    }
+
+    private void compactIfFull() throws IOException {
+        if (segmentBytes >= maxSegmentBytes) {
+            compact();
+        }
+    }
+
+    private void compact() throws IOException {
+        close();
+
+        long nextSegmentNumber = segmentNumber + 1;
+        Path target = segmentFile(nextSegmentNumber).toPath();
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileOutputStream tempOut = new FileOutputStream(temp.toFile())) {
+            for (OutboxEntry entry : pending.values()) {
+                tempOut.write(addRecord(entry).getBytes(StandardCharsets.UTF_8));
+            }
+            tempOut.getChannel().force(true);
+        }
+        // a crash after the move only leaves older segments behind, replaying them first is harmless
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        for (File segment : listSegments()) {
+            if (segmentNumber(segment) < nextSegmentNumber) {
+                Files.deleteIfExists(segment.toPath());
+            }
+        }
+
+        segmentNumber = nextSegmentNumber;
+        // only records appended since compaction count towards the limit, so a large backlog doesn't compact on every write
+        segmentBytes = 0;
+        out = new FileOutputStream(target.toFile(), true);
+    }
+
+    private static String addRecord(OutboxEntry entry) {
+        JSONObject record = new JSONObject();
+        record.put("op", OP_ADD);
+        record.put("id", entry.getId());
+        record.put("entry", entry.toJson());
+        return record.toString() + '\n';
+    }
+
+    private List<File> listSegments() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        List<File> segments = new ArrayList<>(Arrays.asList(files));
+        segments.sort(Comparator.comparingLong(OutboxJournal::segmentNumber));
+        return segments;
+    }
+
+    private File segmentFile(long number) {
+        return new File(directory, SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package jenkins.plugins.slack.outbox;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Persistent queue of outgoing notifications under {@code JENKINS_HOME/slack-outbox}.
+ * Builds only wait for the notification to be journaled, background dispatchers post it to
+ * Slack and retry with backoff. Notifications to the same room are posted one at a time in the
+ * order they were queued, a notification waits until the ones before it were delivered or given
+ * up on. Notifications still queued when Jenkins stops are replayed on the next start.
+ */
+@Extension
+public class SlackOutbox {
+
+    private static final Logger logger = Logger.getLogger(SlackOutbox.class.getName());
+
+    private static final int MAX_ATTEMPTS = Integer.getInteger(SlackOutbox.class.getName() + ".maxAttempts", 10);
+    private static final int MAX_PENDING_ENTRIES = Integer.getInteger(SlackOutbox.class.getName() + ".maxPendingEntries", 10000);
+    private static final long MAX_SEGMENT_BYTES = Long.getLong(SlackOutbox.class.getName() + ".maxSegmentBytes", 4 * 1024 * 1024);
+    private static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAX_DISPATCHERS = Integer.getInteger(SlackOutbox.class.getName() + ".maxDispatchers", 4);
+
+    // only starts the posts and handles their outcome, the posts themselves don't hold a dispatcher
+    private final ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(MAX_DISPATCHERS, MAX_DISPATCHERS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), "Slack outbox dispatcher"));
+    // only waits out the backoff of failed posts, they are retried on a dispatcher
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Slack outbox retry scheduler"));
+    // the queued entries of each room with one being dispatched, the head is the one being posted
+    private final Map<String, Queue<OutboxEntry>> rooms = new HashMap<>();
+    private volatile OutboxJournal journal;
+
+    public SlackOutbox() {
+        dispatcher.allowCoreThreadTimeOut(true);
+    }
+
+    public static SlackOutbox get() {
+        return ExtensionList.lookupSingleton(SlackOutbox.class);
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void replay() {
+        get().open(new File(Jenkins.get().getRootDir(), "slack-outbox"));
+    }
+
+    @Terminator
+    public static void shutdown() {
+        get().close();
+    }
+
+    synchronized void open(File directory) {
+        OutboxJournal opened = new OutboxJournal(directory, MAX_SEGMENT_BYTES, MAX_PENDING_ENTRIES);
+        try {
+            List<OutboxEntry> entries = opened.open();
+            journal = opened;
+            if (!entries.isEmpty()) {
+                logger.info("Replaying " + entries.size() + " queued Slack notifications");
+            }
+            for (OutboxEntry entry : entries) {
+                submit(entry);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not open the Slack outbox, notifications will be sent directly", e);
+        }
+    }
+
+    synchronized void close() {
+        retryScheduler.shutdownNow();
+        dispatcher.shutdownNow();
+        OutboxJournal closing = journal;
+        journal = null;
+        if (closing != null) {
+            try {
+                closing.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing the Slack outbox", e);
+            }
+        }
+    }
+
+    /**
+     * Durably queues notifications for delivery in the background.
+     *
+     * @param entries one entry per room to notify
+     * @return false if the entries could not be queued and have to be posted by the caller
+     */
+    public boolean enqueue(List<OutboxEntry> entries) {
+        OutboxJournal current = journal;
+        if (current == null) {
+            return false;
+        }
+        try {
+            if (!current.append(entries)) {
+                logger.warning("Slack outbox is full, posting directly");
+                return false;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not queue Slack notification, posting directly", e);
+            return false;
+        }
+        for (OutboxEntry entry : entries) {
+            submit(entry);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of notifications waiting to be delivered
+     */
+    public int getPendingCount() {
+        OutboxJournal current = journal;
+        return current != null ? current.size() : 0;
+    }
+
+    private void submit(OutboxEntry entry) {
+        String room = entry.getDestination();
+        synchronized (rooms) {
+            Queue<OutboxEntry> queued = rooms.get(room);
+            if (queued != null) {
+                // dispatched once the entries before it are done
+                queued.add(entry);
+                return;
+            }
+            queued = new ArrayDeque<>();
+            queued.add(entry);
+            rooms.put(room, queued);
+        }
+        dispatcher.execute(() -> dispatch(room, 1));
+    }
+
+    /**
+     * Posts the oldest entry of a room, then dispatches the next one once it was delivered or
+     * given up on. The post runs on the non-blocking client, the dispatcher isn't held while
+     * Slack answers.
+     */
+    private void dispatch(String room, int attempt) {
+        OutboxEntry entry;
+        synchronized (rooms) {
+            entry = rooms.get(room).element();
+        }
+
+        CompletableFuture<Boolean> delivery;
+        try {
+            // failed posts are logged by the service
+            delivery = entry.createSlackService().publishAsync(entry.getSlackRequest())
+                    .handle((response, e) -> e == null);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Error posting queued Slack notification", e);
+            delivery = CompletableFuture.completedFuture(false);
+        }
+        // the outcome arrives on an I/O thread, acknowledging writes the journal
+        delivery.thenAcceptAsync(delivered -> dispatched(room, entry, attempt, delivered), dispatcher);
+    }
+
+    private void dispatched(String room, OutboxEntry entry, int attempt, boolean delivered) {
+        if (!delivered && attempt < MAX_ATTEMPTS) {
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+            logger.fine("Retrying Slack notification to " + entry.getRoomId() + " in " + backoff + "ms");
+            retryScheduler.schedule(() -> dispatcher.execute(() -> dispatch(room, attempt + 1)), backoff, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (!delivered) {
+            logger.warning("Giving up on Slack notification to " + entry.getRoomId() + " after " + attempt + " attempts");
+        }
+
+        OutboxJournal current = journal;
+        if (current != null) {
+            try {
+                current.acknowledge(entry.getId());
+            } catch (IOException e) {
+                // the entry is sent again after a restart, a duplicate beats a lost notification
+                logger.log(Level.WARNING, "Could not acknowledge Slack notification in the outbox", e);
+            }
+        }
+
+        synchronized (rooms) {
+            Queue<OutboxEntry> queued = rooms.get(room);
+            queued.remove();
+            if (queued.isEmpty()) {
+                rooms.remove(room);
+                return;
+            }
+        }
+        dispatcher.execute(() -> dispatch(room, 1));
+    }
+}
@@ -7,12 +7,17 @@ import hudson.util.DirScanner;
 import hudson.util.FileVisitor;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.plugins.slack.HttpClient;
+import jenkins.plugins.slack.circuit.SlackCircuitBreaker;
+import jenkins.plugins.slack.ratelimit.SlackRateLimiter;
+import jenkins.plugins.slack.ratelimit.SlackRetryPolicy;
 import jenkins.security.MasterToSlaveCallable;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
@@ -32,7 +37,9 @@ import org.json.JSONObject;
 public class SlackUploadFileRunner extends MasterToSlaveCallable<Boolean, Throwable> implements Serializable {
 
     private static final long serialVersionUID = 1L;
-    private static final String GET_UPLOAD_URL_API = "https://slack.com/api/files.getUploadURLExternal";
+    private static final String GET_UPLOAD_URL_METHOD = "files.getUploadURLExternal";
+    private static final String GET_UPLOAD_URL_API = "https://slack.com/api/" + GET_UPLOAD_URL_METHOD;
+    private static final String COMPLETE_UPLOAD_METHOD = "files.completeUploadExternal";
     private static final Logger logger = Logger.getLogger(SlackUploadFileRunner.class.getName());
     private static final String UPLOAD_FAILED_TEMPLATE = "Slack upload may have failed. Response: ";
 
@@ -86,7 +93,9 @@ public class SlackUploadFileRunner extends MasterToSlaveCallable<Boolean, Throwa
 
     private boolean doIt(List<File> files) {
         List<String> fileIds = new ArrayList<>();
-        try (CloseableHttpClient client = HttpClient.getCloseableHttpClient(proxy)) {
+        // shared pooled client, must not be closed here
+        CloseableHttpClient client = HttpClient.getPooledHttpClient(proxy);
+        try {
             for (File file : files) {
                 MultipartEntityBuilder multipartEntityBuilder = MultipartEntityBuilder.create()
                         .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
@@ -129,13 +138,18 @@ public class SlackUploadFileRunner extends MasterToSlaveCallable<Boolean, Throwa
         }
 
         jsonObject.put("files", convertListToJsonArray(fileIds));
-        HttpUriRequest completeRequest = RequestBuilder
-                .post("https://slack.com/api/files.completeUploadExternal")
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod(COMPLETE_UPLOAD_METHOD);
+        JSONObject completeRequestResponse;
+        try (CloseableHttpResponse response = executeWithRetries(retryPolicy, COMPLETE_UPLOAD_METHOD, client, () -> RequestBuilder
+                .post("https://slack.com/api/" + COMPLETE_UPLOAD_METHOD)
                 .setEntity(new StringEntity(jsonObject.toString(), ContentType.APPLICATION_JSON))
                 .addHeader("Authorization", "Bearer " + token)
-                .build();
-
-        JSONObject completeRequestResponse = client.execute(completeRequest, getStandardResponseHandler());
+                .build())) {
+            if (response == null) {
+                return false;
+            }
+            completeRequestResponse = getStandardResponseHandler().handleResponse(response);
+        }
 
         if (completeRequestResponse != null && !completeRequestResponse.getBoolean("ok")) {
             listener.getLogger().println(UPLOAD_FAILED_TEMPLATE + completeRequestResponse);
@@ -169,13 +183,16 @@ public class SlackUploadFileRunner extends MasterToSlaveCallable<Boolean, Throwa
     }
 
     private boolean uploadFile(String uploadUrl, MultipartEntityBuilder multipartEntityBuilder, CloseableHttpClient client) throws IOException {
-        HttpUriRequest request = RequestBuilder
+        // the upload URL belongs to a single file, uploading to it again replaces the content
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forIdempotentCall("file upload");
+        try (CloseableHttpResponse responseBody = executeWithRetries(retryPolicy, null, client, () -> RequestBuilder
                 .post(uploadUrl)
                 .setEntity(multipartEntityBuilder.build())
                 .addHeader("Authorization", "Bearer " + token)
-                .build();
-
-        try (CloseableHttpResponse responseBody = client.execute(request)) {
+                .build())) {
+            if (responseBody == null) {
+                return false;
+            }
             if (responseBody.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
                 listener.getLogger().println(UPLOAD_FAILED_TEMPLATE + EntityUtils.toString(responseBody.getEntity()));
                 return false;
@@ -185,12 +202,20 @@ public class SlackUploadFileRunner extends MasterToSlaveCallable<Boolean, Throwa
     }
 
     private JSONObject getUploadUrlExternal(File file, CloseableHttpClient client) throws IOException {
-        HttpUriRequest getUploadApiRequest = RequestBuilder.get(GET_UPLOAD_URL_API)
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod(GET_UPLOAD_URL_METHOD);
+        JSONObject getUploadRequestResponse;
+        try (CloseableHttpResponse response = executeWithRetries(retryPolicy, GET_UPLOAD_URL_METHOD, client, () -> RequestBuilder
+                .get(GET_UPLOAD_URL_API)
                 .addParameter("filename", file.getName())
                 .addParameter("length", String.valueOf(file.length()))
                 .addHeader("Authorization", "Bearer " + token)
-                .build();
-        JSONObject getUploadRequestResponse = client.execute(getUploadApiRequest, getStandardResponseHandler());
+                .build())) {
+            if (response == null) {
+                listener.getLogger().println(UPLOAD_FAILED_TEMPLATE);
+                return null;
+            }
+            getUploadRequestResponse = getStandardResponseHandler().handleResponse(response);
+        }
         if (getUploadRequestResponse != null && !getUploadRequestResponse.getBoolean("ok")) {
             listener.getLogger().println(UPLOAD_FAILED_TEMPLATE + getUploadRequestResponse);
             return null;
@@ -200,4 +225,71 @@ public class SlackUploadFileRunner extends MasterToSlaveCallable<Boolean, Throwa
         }
         return getUploadRequestResponse;
     }
+
+    /**
+     * Executes a request, retrying it as long as the retry policy allows.
+     *
+     * @param retryPolicy decides whether a failed attempt is retried
+     * @param rateLimitedMethod the Slack API method to take rate limit permits for, null for requests
+     *                          to the upload URL handed out by Slack
+     * @param client the client to execute the request with
+     * @param requestFactory creates the request for every attempt
+     * @return the response to the last attempt, or null if the rate limit or the circuit breaker don't allow the call
+     * @throws IOException if the last attempt failed
+     */
+    private CloseableHttpResponse executeWithRetries(SlackRetryPolicy retryPolicy, String rateLimitedMethod,
+                                                     CloseableHttpClient client,
+                                                     Supplier<HttpUriRequest> requestFactory) throws IOException {
+        SlackCircuitBreaker circuitBreaker = SlackCircuitBreaker.forToken(token);
+        while (true) {
+            if (!circuitBreaker.allowRequest()) {
+                listener.getLogger().println("Slack is unavailable, not calling " + retryPolicy.getMethod() + " until it recovers");
+                return null;
+            }
+            if (rateLimitedMethod != null && !SlackRateLimiter.acquire(token, rateLimitedMethod)) {
+                return null;
+            }
+            String retryReason;
+            long retryDelayMillis;
+            CloseableHttpResponse response = null;
+            try {
+                response = client.execute(requestFactory.get());
+                circuitBreaker.onResponse(response);
+                if (rateLimitedMethod != null) {
+                    SlackRateLimiter.onResponse(token, rateLimitedMethod, null, response);
+                }
+                retryDelayMillis = retryPolicy.nextDelayMillis(response);
+                if (retryDelayMillis < 0) {
+                    if (retryPolicy.getRetries() > 0) {
+                        listener.getLogger().printf("Slack %s responded with HTTP %d after %d retries%n",
+                                retryPolicy.getMethod(), response.getStatusLine().getStatusCode(), retryPolicy.getRetries());
+                    }
+                    return response;
+                }
+                retryReason = "HTTP " + response.getStatusLine().getStatusCode();
+                EntityUtils.consume(response.getEntity());
+                response.close();
+            } catch (IOException e) {
+                if (response != null) {
+                    response.close();
+                } else {
+                    circuitBreaker.onFailure();
+                }
+                retryDelayMillis = retryPolicy.nextDelayMillis(e);
+                if (retryDelayMillis < 0) {
+                    throw e;
+                }
+                retryReason = e.toString();
+            }
+
+            listener.getLogger().printf("Slack %s failed with %s, retry %d of %d in %dms%n", retryPolicy.getMethod(),
+                    retryReason, retryPolicy.getRetries(), retryPolicy.getMaxRetries(), retryDelayMillis);
+            try {
+                Thread.sleep(retryDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + retryPolicy.getMethod());
+            }
+        }
+    }
 }
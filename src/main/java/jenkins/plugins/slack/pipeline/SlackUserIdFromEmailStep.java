@@ -9,10 +9,8 @@ import hudson.model.Item;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.util.ListBoxModel;
-import java.io.IOException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 import jenkins.plugins.slack.CredentialsObtainer;
@@ -140,19 +138,13 @@ public class SlackUserIdFromEmailStep extends Step {
                 return null;
             }
 
-            String slackUserId = null;
-            try (CloseableHttpClient client = getHttpClient()) {
-                slackUserId = new EmailSlackUserIdResolver(populatedToken, client).resolveUserIdForEmailAddress(email);
-            } catch (final IOException e) {
-                logger.log(Level.WARNING, "Error closing HttpClient", e);
-            }
-            return slackUserId;
+            return new EmailSlackUserIdResolver(populatedToken, getHttpClient()).resolveUserIdForEmailAddress(email);
         }
 
         protected CloseableHttpClient getHttpClient() {
             final Jenkins jenkins = Jenkins.getInstanceOrNull();
             final ProxyConfiguration proxy = jenkins != null ? jenkins.proxy : null;
-            return HttpClient.getCloseableHttpClient(proxy);
+            return HttpClient.getPooledHttpClient(proxy);
         }
 
     }
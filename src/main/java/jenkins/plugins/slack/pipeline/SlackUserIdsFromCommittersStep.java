@@ -9,12 +9,10 @@ import hudson.model.Item;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.util.ListBoxModel;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
@@ -139,17 +137,13 @@ public class SlackUserIdsFromCommittersStep extends Step {
             }
 
             final List<String> slackUserIds = new ArrayList<>();
-            try (CloseableHttpClient client = getHttpClient()) {
-                // include committer userIds in roomIds
-                if (userIdResolver != null && run != null) {
-                    userIdResolver.setAuthToken(populatedToken);
-                    userIdResolver.setHttpClient(client);
-                    final List<String> userIds = userIdResolver.resolveUserIdsForRun(run);
-                    slackUserIds
-                            .addAll(userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList()));
-                }
-            } catch (final IOException e) {
-                logger.log(Level.WARNING, "Error closing HttpClient", e);
+            // include committer userIds in roomIds
+            if (userIdResolver != null && run != null) {
+                userIdResolver.setAuthToken(populatedToken);
+                userIdResolver.setHttpClient(getHttpClient());
+                final List<String> userIds = userIdResolver.resolveUserIdsForRun(run);
+                slackUserIds
+                        .addAll(userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList()));
             }
             return slackUserIds;
         }
@@ -157,7 +151,7 @@ public class SlackUserIdsFromCommittersStep extends Step {
         protected CloseableHttpClient getHttpClient() {
             final Jenkins jenkins = Jenkins.getInstanceOrNull();
             final ProxyConfiguration proxy = jenkins != null ? jenkins.proxy : null;
-            return HttpClient.getCloseableHttpClient(proxy);
+            return HttpClient.getPooledHttpClient(proxy);
         }
 
     }
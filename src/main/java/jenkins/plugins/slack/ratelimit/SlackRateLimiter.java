@@ -0,0 +1,178 @@
+package jenkins.plugins.slack.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+
+/**
+ * Client side rate limiting of Slack API calls, with a token bucket per token and API method sized
+ * after the documented Slack rate limit tiers. {@code chat.postMessage} is limited per channel, as
+ * Slack does. Rate limits are per process, on an agent uploads only share the buckets of that agent.
+ *
+ * @see <a href="https://api.slack.com/docs/rate-limits">Slack rate limits</a>
+ */
+public final class SlackRateLimiter {
+
+    private static final Logger logger = Logger.getLogger(SlackRateLimiter.class.getName());
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(
+            Long.getLong(SlackRateLimiter.class.getName() + ".maxWaitSeconds", 30));
+    private static final long DEFAULT_RETRY_AFTER_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int TIER_2 = 20;
+    private static final int TIER_3 = 50;
+    private static final int TIER_4 = 100;
+    // chat.postMessage is special, roughly one message per second per channel with generous bursts
+    private static final String POST_MESSAGE_METHOD = "chat.postMessage";
+    private static final int POST_MESSAGE = 60;
+    private static final int POST_MESSAGE_BURST = 20;
+
+    private static final Map<String, Integer> PERMITS_PER_MINUTE = new HashMap<>();
+
+    static {
+        PERMITS_PER_MINUTE.put(POST_MESSAGE_METHOD, POST_MESSAGE);
+        PERMITS_PER_MINUTE.put("chat.update", TIER_3);
+        PERMITS_PER_MINUTE.put("reactions.add", TIER_3);
+        PERMITS_PER_MINUTE.put("reactions.remove", TIER_3);
+        PERMITS_PER_MINUTE.put("users.lookupByEmail", TIER_3);
+        PERMITS_PER_MINUTE.put("conversations.list", TIER_2);
+        PERMITS_PER_MINUTE.put("users.list", TIER_2);
+    }
+
+    private static final Cache<String, TokenBucket> BUCKETS = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    private SlackRateLimiter() {
+    }
+
+    /**
+     * Waits for a permit to call the given API method.
+     *
+     * @param token the token the call is made with
+     * @param method the Slack API method, e.g. {@code users.lookupByEmail}
+     * @return false if the permit isn't available within the configured wait budget, the call should not be made
+     */
+    public static boolean acquire(String token, String method) {
+        return acquire(token, method, null);
+    }
+
+    /**
+     * Waits for a permit to call the given API method.
+     *
+     * @param token the token the call is made with
+     * @param method the Slack API method, e.g. {@code chat.postMessage}
+     * @param channel the channel the call posts to, may be null
+     * @return false if the permit isn't available within the configured wait budget, the call should not be made
+     */
+    public static boolean acquire(String token, String method, String channel) {
+        long waitMillis = reserve(token, method, channel);
+        if (waitMillis < 0) {
+            return false;
+        }
+        if (waitMillis > 0) {
+            logger.fine("Waiting " + waitMillis + "ms for Slack rate limit of " + method);
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserves a permit to call the given API method without waiting for it.
+     *
+     * @param token the token the call is made with
+     * @param method the Slack API method, e.g. {@code chat.postMessage}
+     * @param channel the channel the call posts to, may be null
+     * @return milliseconds to wait before making the call, or -1 if the permit isn't available within
+     *         the configured wait budget and the call should not be made
+     */
+    public static long reserve(String token, String method, String channel) {
+        long waitNanos = bucket(token, method, channel).reserve(System.nanoTime(), MAX_WAIT_NANOS);
+        if (waitNanos < 0) {
+            logger.warning("Slack rate limit for " + method + " would delay the call by more than "
+                    + TimeUnit.NANOSECONDS.toSeconds(MAX_WAIT_NANOS) + "s, not calling Slack");
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    /**
+     * Feeds a rate limited response back into the limiter, so following calls back off for as long as
+     * Slack asked for in its {@code Retry-After} header. Other responses are ignored.
+     *
+     * @param token the token the call was made with
+     * @param method the Slack API method, e.g. {@code chat.postMessage}
+     * @param channel the channel the call posted to, may be null
+     * @param response the response to the call
+     */
+    public static void onResponse(String token, String method, String channel, HttpResponse response) {
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            penalize(token, method, channel, getRetryAfterNanos(response));
+        }
+    }
+
+    /**
+     * Stops handing out permits for the given API method for a while.
+     *
+     * @param token the token the call was made with
+     * @param method the Slack API method, e.g. {@code chat.postMessage}
+     * @param channel the channel the call posted to, may be null
+     * @param retryAfterNanos how long to back off
+     */
+    public static void penalize(String token, String method, String channel, long retryAfterNanos) {
+        logger.info(String.format("Rate limited by Slack on %s, holding calls for %dms", method,
+                TimeUnit.NANOSECONDS.toMillis(retryAfterNanos)));
+        bucket(token, method, channel).penalize(System.nanoTime(), retryAfterNanos);
+    }
+
+    /**
+     * @param response a rate limited response
+     * @return the back off Slack asked for, or a second if it didn't say
+     */
+    public static long getRetryAfterNanos(HttpResponse response) {
+        Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.getValue().trim()));
+            } catch (NumberFormatException e) {
+                logger.fine("Ignoring unparseable Retry-After header: " + retryAfter.getValue());
+            }
+        }
+        return DEFAULT_RETRY_AFTER_NANOS;
+    }
+
+    static int getPermitsPerMinute(String method) {
+        Integer permitsPerMinute = PERMITS_PER_MINUTE.get(method);
+        if (permitsPerMinute != null) {
+            return permitsPerMinute;
+        }
+        return method.startsWith("files.") ? TIER_4 : TIER_3;
+    }
+
+    private static TokenBucket bucket(String token, String method, String channel) {
+        // keyed by a digest so the tokens themselves aren't kept around
+        String key = DigestUtils.sha256Hex(String.valueOf(token)) + ':' + method;
+        if (POST_MESSAGE_METHOD.equals(method) && channel != null) {
+            key += ':' + channel;
+        }
+        return BUCKETS.get(key, ignored -> {
+            int permitsPerMinute = getPermitsPerMinute(method);
+            int burst = POST_MESSAGE_METHOD.equals(method) ? POST_MESSAGE_BURST : Math.max(1, permitsPerMinute / 4);
+            return new TokenBucket(permitsPerMinute, burst, System.nanoTime());
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package jenkins.plugins.slack.ratelimit;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.conn.ConnectTimeoutException;
+
+/**
+ * Decides whether a failed Slack API call is retried and how long to wait before doing so, using
+ * exponential backoff with full jitter and the {@code Retry-After} header of rate limited responses.
+ * The total delay of a call is capped, so a Slack incident can't hold a build for long.
+ * <p>
+ * Calls that post something, like {@code chat.postMessage}, are only retried when Slack certainly
+ * didn't act on them: the response was a 429 or the connection was never established. Any other
+ * failure may have posted the message already, and retrying it would post it twice.
+ * <p>
+ * An instance keeps track of the retries of a single call and must not be shared between calls.
+ */
+public final class SlackRetryPolicy {
+
+    private static final int MAX_RETRIES = Integer.getInteger(SlackRetryPolicy.class.getName() + ".maxRetries", 3);
+    private static final long MAX_TOTAL_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(
+            Long.getLong(SlackRetryPolicy.class.getName() + ".maxTotalDelaySeconds", 30));
+    private static final long BASE_DELAY_MILLIS = 500;
+    private static final long MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(8);
+
+    // sending these twice leaves Slack in the same state as sending them once
+    private static final Set<String> IDEMPOTENT_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "chat.update",
+            "reactions.add",
+            "reactions.remove",
+            "conversations.list",
+            "users.lookupByEmail",
+            "files.getUploadURLExternal"
+    )));
+
+    private final String method;
+    private final boolean idempotent;
+    private int retries;
+    private long totalDelayMillis;
+
+    private SlackRetryPolicy(String method, boolean idempotent) {
+        this.method = method;
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * @param method the Slack API method about to be called, e.g. {@code chat.postMessage}
+     * @return a policy for a single call of the given method
+     */
+    public static SlackRetryPolicy forMethod(String method) {
+        return new SlackRetryPolicy(method, IDEMPOTENT_METHODS.contains(method));
+    }
+
+    /**
+     * @param method a name for the call, used in log messages
+     * @return a policy for a single call that is safe to repeat, e.g. uploading to a URL Slack handed out
+     */
+    public static SlackRetryPolicy forIdempotentCall(String method) {
+        return new SlackRetryPolicy(method, true);
+    }
+
+    /**
+     * @param response the response to the last attempt
+     * @return milliseconds to wait before trying again, or -1 if the response is final
+     */
+    public long nextDelayMillis(HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+        if (status == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            long retryAfterMillis = TimeUnit.NANOSECONDS.toMillis(SlackRateLimiter.getRetryAfterNanos(response));
+            return scheduleRetry(retryAfterMillis);
+        }
+        if (idempotent && isTransient(status)) {
+            return scheduleRetry(0);
+        }
+        return -1;
+    }
+
+    /**
+     * @param e the exception the last attempt failed with
+     * @return milliseconds to wait before trying again, or -1 if the failure is final
+     */
+    public long nextDelayMillis(Exception e) {
+        if (!(e instanceof IOException)) {
+            return -1;
+        }
+        if (idempotent || wasNotSent(e)) {
+            return scheduleRetry(0);
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of retries scheduled so far
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    public int getMaxRetries() {
+        return MAX_RETRIES;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    private long scheduleRetry(long minimumDelayMillis) {
+        if (retries >= MAX_RETRIES) {
+            return -1;
+        }
+        long backoffCeiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << retries);
+        long delayMillis = Math.max(minimumDelayMillis, ThreadLocalRandom.current().nextLong(backoffCeiling + 1));
+        if (totalDelayMillis + delayMillis > MAX_TOTAL_DELAY_MILLIS) {
+            return -1;
+        }
+        retries++;
+        totalDelayMillis += delayMillis;
+        return delayMillis;
+    }
+
+    private static boolean isTransient(int status) {
+        return status == HttpStatus.SC_INTERNAL_SERVER_ERROR
+                || status == HttpStatus.SC_BAD_GATEWAY
+                || status == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || status == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    private static boolean wasNotSent(Exception e) {
+        // the request never left this machine, anything after connecting may have reached Slack
+        return e instanceof ConnectException
+                || e instanceof ConnectTimeoutException
+                || e instanceof UnknownHostException;
+    }
+}
@@ -0,0 +1,67 @@
+package jenkins.plugins.slack.ratelimit;
+
+/**
+ * Token bucket that hands out reservations instead of blocking, so callers decide whether to wait.
+ * Unused permits build up to the burst size, beyond that every permit has to wait for the refill.
+ * Times are in nanoseconds and passed in by the caller.
+ */
+final class TokenBucket {
+
+    private final double burst;
+    private final double nanosPerPermit;
+
+    // the permits available at nextFreeNanos, which is in the future while callers are queued up
+    private double storedPermits;
+    private long nextFreeNanos;
+
+    TokenBucket(int permitsPerMinute, int burst, long nowNanos) {
+        this.burst = burst;
+        this.nanosPerPermit = 60_000_000_000d / permitsPerMinute;
+        this.storedPermits = burst;
+        this.nextFreeNanos = nowNanos;
+    }
+
+    /**
+     * Reserves a permit if it becomes available within the given time.
+     *
+     * @param nowNanos the current time
+     * @param maxWaitNanos how long the caller is prepared to wait
+     * @return how long the caller has to wait before using the permit, or -1 if it would have to wait
+     *         longer than {@code maxWaitNanos}, in which case nothing is reserved
+     */
+    synchronized long reserve(long nowNanos, long maxWaitNanos) {
+        refill(nowNanos);
+        double fromStored = Math.min(1, storedPermits);
+        long availableAtNanos = nextFreeNanos + (long) ((1 - fromStored) * nanosPerPermit);
+        long waitNanos = Math.max(0, availableAtNanos - nowNanos);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        storedPermits -= fromStored;
+        nextFreeNanos = availableAtNanos;
+        return waitNanos;
+    }
+
+    /**
+     * Stops handing out permits until the server says we may call again.
+     *
+     * @param nowNanos the current time
+     * @param retryAfterNanos how long the server asked us to back off
+     */
+    synchronized void penalize(long nowNanos, long retryAfterNanos) {
+        refill(nowNanos);
+        long retryAtNanos = nowNanos + retryAfterNanos;
+        if (retryAtNanos > nextFreeNanos) {
+            // a single call is allowed once the back off is over, the rest has to wait for the refill
+            nextFreeNanos = retryAtNanos;
+            storedPermits = Math.min(1, burst);
+        }
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > nextFreeNanos) {
+            storedPermits = Math.min(burst, storedPermits + (nowNanos - nextFreeNanos) / nanosPerPermit);
+            nextFreeNanos = nowNanos;
+        }
+    }
+}
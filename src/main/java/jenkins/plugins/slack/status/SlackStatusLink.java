@@ -0,0 +1,71 @@
+package jenkins.plugins.slack.status;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import java.util.List;
+import jenkins.plugins.slack.Messages;
+import jenkins.plugins.slack.cache.ChannelSyncStatus;
+import jenkins.plugins.slack.cache.SlackChannelIdCache;
+import jenkins.plugins.slack.circuit.SlackCircuitBreaker;
+import jenkins.plugins.slack.outbox.SlackOutbox;
+import jenkins.plugins.slack.user.SlackUserIdCache;
+
+/**
+ * Page under Manage Jenkins showing how the connection to Slack is doing.
+ */
+@Extension
+public class SlackStatusLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.SlackStatusLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.SlackStatusLink_Description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "slack-status";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public List<SlackCircuitBreaker> getCircuitBreakers() {
+        return SlackCircuitBreaker.getAll();
+    }
+
+    public List<ChannelSyncStatus> getChannelSyncStatus() {
+        return SlackChannelIdCache.getSyncStatus();
+    }
+
+    public long getUserIdCacheSize() {
+        return SlackUserIdCache.getSize();
+    }
+
+    public CacheStats getUserIdCacheStats() {
+        return SlackUserIdCache.getStats();
+    }
+
+    /**
+     * @return the share of user ID lookups answered by the cache, e.g. {@code 87%}
+     */
+    public String getUserIdCacheHitRate() {
+        return String.format("%.0f%%", SlackUserIdCache.getStats().hitRate() * 100);
+    }
+
+    public int getPendingOutboxCount() {
+        return SlackOutbox.get().getPendingCount();
+    }
+}
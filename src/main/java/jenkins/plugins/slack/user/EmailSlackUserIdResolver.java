@@ -28,25 +28,20 @@ import hudson.Extension;
 import hudson.model.User;
 import hudson.tasks.MailAddressResolver;
 import java.io.IOException;
-import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Stream;
+import jenkins.plugins.slack.SlackApiResponse;
+import jenkins.plugins.slack.ratelimit.SlackRateLimiter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
-import org.apache.http.ParseException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.util.EntityUtils;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 public class EmailSlackUserIdResolver extends SlackUserIdResolver {
@@ -54,11 +49,10 @@ public class EmailSlackUserIdResolver extends SlackUserIdResolver {
     private static final Logger LOGGER = Logger.getLogger(EmailSlackUserIdResolver.class.getName());
 
     private static final String AUTHORIZATION_BEARER_TOKEN_FORMAT = "Bearer %s";
-    private static final String LOOKUP_BY_EMAIL_METHOD_URL = "https://slack.com/api/users.lookupByEmail";
+    private static final String LOOKUP_BY_EMAIL_METHOD = "users.lookupByEmail";
+    private static final String LOOKUP_BY_EMAIL_METHOD_URL = "https://slack.com/api/" + LOOKUP_BY_EMAIL_METHOD;
     private static final String LOOKUP_BY_EMAIL_METHOD_URL_FORMAT = LOOKUP_BY_EMAIL_METHOD_URL + "?email=%s";
-    private static final String SLACK_OK_FIELD = "ok";
-    private static final String SLACK_USER_FIELD = "user";
-    private static final String SLACK_ID_FIELD = "id";
+    private static final String USERS_NOT_FOUND_ERROR = "users_not_found";
 
     private List<MailAddressResolver> mailAddressResolvers;
     private transient Function<User, String> defaultMailAddressResolver;
@@ -92,31 +86,20 @@ public class EmailSlackUserIdResolver extends SlackUserIdResolver {
     }
 
     protected String resolveUserId(User user) {
-        Optional<String> userId = Optional.ofNullable(mailAddressResolvers)
-                .map(Collection::stream)
-                .orElseGet(Stream::empty)
-                .map(resolver -> {
-                    try {
-                        return resolver.findMailAddressFor(user);
-                    } catch (Exception ex) {
-                        LOGGER.log(Level.WARNING, String.format(
-                                "The email resolver '%s' failed", resolver.getClass().getName()), ex);
-                        return null;
-                    }
-                })
-                .filter(StringUtils::isNotEmpty)
+        String userId = resolveFirstUserId(MailAddressCache.get(user, mailAddressResolvers));
+        if (userId == null && defaultMailAddressResolver != null) {
+            // the default resolution asks every resolver again, only when the configured ones didn't find the user
+            userId = resolveFirstUserId(MailAddressCache.getDefault(user, defaultMailAddressResolver));
+        }
+        return userId;
+    }
+
+    private String resolveFirstUserId(List<String> emailAddresses) {
+        return emailAddresses.stream()
                 .map(this::resolveUserIdForEmailAddress)
                 .filter(StringUtils::isNotEmpty)
-                .findAny();
-
-        // Return value can be null, so Optional.orElseGet(Supplier) doesn't work.
-        if (userId.isPresent()) {
-            return userId.get();
-        } else if (defaultMailAddressResolver != null){
-            return resolveUserIdForEmailAddress(defaultMailAddressResolver.apply(user));
-        } else {
-            return null;
-        }
+                .findFirst()
+                .orElse(null);
     }
 
     public String resolveUserIdForEmailAddress(String emailAddress) {
@@ -130,23 +113,33 @@ public class EmailSlackUserIdResolver extends SlackUserIdResolver {
             return null;
         }
 
+        return SlackUserIdCache.get(authToken, emailAddress, this::lookUpUserId);
+    }
+
+    private String lookUpUserId(String emailAddress) {
+        if (!SlackRateLimiter.acquire(authToken, LOOKUP_BY_EMAIL_METHOD)) {
+            return null;
+        }
+
         String slackUserId = null;
         final String url = String.format(LOOKUP_BY_EMAIL_METHOD_URL_FORMAT, emailAddress);
         final HttpGet getRequest = new HttpGet(url);
         getRequest.addHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_FORM_URLENCODED.getMimeType());
         getRequest.addHeader(HttpHeaders.AUTHORIZATION, String.format(AUTHORIZATION_BEARER_TOKEN_FORMAT, authToken));
         try (CloseableHttpResponse response = httpClient.execute(getRequest)) {
+            SlackRateLimiter.onResponse(authToken, LOOKUP_BY_EMAIL_METHOD, null, response);
             final int responseCode = response.getStatusLine().getStatusCode();
             if (HttpStatus.SC_OK == responseCode) {
                 final HttpEntity entity = response.getEntity();
-                final JSONObject slackResponse = new JSONObject(EntityUtils.toString(entity));
+                final SlackApiResponse slackResponse = SlackApiResponse.read(entity);
                 // additionally, make sure the JSON response contains an 'ok: true' entry
-                if (slackResponse.optBoolean(SLACK_OK_FIELD)) {
-                    final JSONObject slackUser = slackResponse.getJSONObject(SLACK_USER_FIELD);
-                    slackUserId = slackUser.getString(SLACK_ID_FIELD);
+                if (slackResponse.isOk()) {
+                    slackUserId = slackResponse.getUserId();
+                } else if (USERS_NOT_FOUND_ERROR.equals(slackResponse.getError())) {
+                    slackUserId = SlackUserIdCache.NOT_FOUND;
                 }
             }
-        } catch (IOException | ParseException | JSONException ex) {
+        } catch (IOException ex) {
             LOGGER.log(Level.WARNING, "Error getting userId from Slack", ex);
         }
         return slackUserId;
@@ -0,0 +1,174 @@
+package jenkins.plugins.slack.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+import hudson.tasks.MailAddressResolver;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Email addresses of users as found by {@link MailAddressResolver}s. Resolvers may query LDAP or
+ * other directories, so the configured resolvers are all asked at the same time, and the default
+ * resolution, which asks every registered resolver again, is kept separate so it's only started
+ * when the configured ones didn't help. The addresses are remembered for a while for the user and
+ * resolvers, or until the user is saved, e.g. after changing their address. Addresses are only
+ * remembered if every resolver answered in time.
+ */
+public final class MailAddressCache {
+
+    private static final Logger logger = Logger.getLogger(MailAddressCache.class.getName());
+
+    private static final long TTL_MINUTES = Long.getLong(MailAddressCache.class.getName() + ".ttlMinutes", 60);
+    private static final long MAX_ENTRIES = Long.getLong(MailAddressCache.class.getName() + ".maxEntries", 10_000);
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(
+            Long.getLong(MailAddressCache.class.getName() + ".timeoutSeconds", 30));
+    private static final int MAX_PARALLEL_RESOLVERS = Integer.getInteger(MailAddressCache.class.getName() + ".maxParallelResolvers", 8);
+    // bounded, and the caller resolves itself once all threads are busy
+    private static final ExecutorService RESOLVER_EXECUTOR = new ThreadPoolExecutor(0, MAX_PARALLEL_RESOLVERS, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), "Slack mail address resolution"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    private static final Cache<Key, List<String>> ADDRESSES = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    private MailAddressCache() {
+    }
+
+    /**
+     * @param user the user to find the addresses of
+     * @param resolvers the resolvers to ask, may be null
+     * @return the distinct addresses found, in the order of the resolvers that found them
+     */
+    static List<String> get(User user, List<MailAddressResolver> resolvers) {
+        List<String> names = new ArrayList<>();
+        List<Callable<String>> lookups = new ArrayList<>();
+        if (resolvers != null) {
+            for (MailAddressResolver resolver : resolvers) {
+                names.add(resolver.getClass().getName());
+                lookups.add(() -> resolver.findMailAddressFor(user));
+            }
+        }
+        return get(new Key(user, resolvers, false), names, lookups);
+    }
+
+    /**
+     * @param user the user to find the address of
+     * @param defaultResolver the default resolution, e.g. {@link MailAddressResolver#resolve}
+     * @return the address found, if any
+     */
+    static List<String> getDefault(User user, Function<User, String> defaultResolver) {
+        return get(new Key(user, null, true), Collections.singletonList("default"),
+                Collections.singletonList(() -> defaultResolver.apply(user)));
+    }
+
+    private static List<String> get(Key key, List<String> names, List<Callable<String>> lookups) {
+        List<String> cached = ADDRESSES.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Future<String>> results = new ArrayList<>();
+        for (Callable<String> lookup : lookups) {
+            results.add(RESOLVER_EXECUTOR.submit(lookup));
+        }
+
+        List<String> addresses = new ArrayList<>();
+        boolean complete = true;
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        for (int i = 0; i < results.size(); i++) {
+            Future<String> result = results.get(i);
+            try {
+                String address = result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (StringUtils.isNotEmpty(address) && !addresses.contains(address)) {
+                    addresses.add(address);
+                }
+            } catch (ExecutionException e) {
+                complete = false;
+                logger.log(Level.WARNING, String.format("The email resolver '%s' failed", names.get(i)), e.getCause());
+            } catch (TimeoutException e) {
+                complete = false;
+                result.cancel(true);
+                logger.warning(String.format("The email resolver '%s' timed out", names.get(i)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.forEach(future -> future.cancel(true));
+                return addresses;
+            }
+        }
+
+        if (complete) {
+            ADDRESSES.put(key, addresses);
+        }
+        return addresses;
+    }
+
+    public static void clear() {
+        ADDRESSES.invalidateAll();
+    }
+
+    /**
+     * Forgets the addresses of users when they are saved.
+     */
+    @Extension
+    public static class UserSaveListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof User) {
+                ADDRESSES.asMap().keySet().removeIf(key -> key.user == o);
+            }
+        }
+    }
+
+    // users are canonical and compared by identity, resolvers are extensions
+    private static final class Key {
+        private final User user;
+        private final List<MailAddressResolver> resolvers;
+        private final boolean defaultResolver;
+
+        Key(User user, List<MailAddressResolver> resolvers, boolean defaultResolver) {
+            this.user = user;
+            this.resolvers = resolvers != null ? new ArrayList<>(resolvers) : Collections.emptyList();
+            this.defaultResolver = defaultResolver;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return user == that.user && defaultResolver == that.defaultResolver && resolvers.equals(that.resolvers);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(user) + resolvers.hashCode()) + Boolean.hashCode(defaultResolver);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package jenkins.plugins.slack.user;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import jenkins.model.Jenkins;
+import jenkins.plugins.slack.SlackApiResponse;
+import jenkins.plugins.slack.ratelimit.SlackRateLimiter;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+/**
+ * Email address to user ID index of a workspace, built from {@code users.list} by
+ * {@link SlackUserDirectorySync} a few pages at a time. Users are added to the index as soon as
+ * their page is listed, users that are gone are dropped once a listing completes. Completed
+ * indexes are saved under {@code JENKINS_HOME/slack-user-directory}, named after a digest of the
+ * token, and loaded again on first use after a restart.
+ */
+final class SlackUserDirectory {
+
+    private static final Logger logger = Logger.getLogger(SlackUserDirectory.class.getName());
+
+    private static final long REFRESH_MILLIS = TimeUnit.HOURS.toMillis(
+            Long.getLong(SlackUserDirectory.class.getName() + ".refreshHours", 6));
+    private static final String USERS_LIST_METHOD = "users.list";
+    // the page size Slack recommends for users.list
+    private static final int PAGE_SIZE = 200;
+    private static final int MAGIC = 0x534c5544;
+    private static final int FORMAT_VERSION = 1;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final ConcurrentMap<String, SlackUserDirectory> DIRECTORIES = new ConcurrentHashMap<>();
+
+    private final File snapshot;
+    private final long refreshMillis;
+    private final ConcurrentMap<String, Member> members = new ConcurrentHashMap<>();
+    private final String token;
+    private volatile boolean complete;
+
+    // listing state, only used by the sync
+    private boolean listing;
+    private String cursor;
+    private int generation;
+    private long lastCompletedMillis;
+
+    SlackUserDirectory(String token, File snapshot, long refreshMillis) {
+        this.token = token;
+        this.snapshot = snapshot;
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * @param token the token of the workspace
+     * @return the directory of the workspace, it is listed by the sync from now on
+     */
+    static SlackUserDirectory forToken(String token) {
+        String key = DigestUtils.sha256Hex(token);
+        return DIRECTORIES.computeIfAbsent(key, ignored -> {
+            SlackUserDirectory loaded = new SlackUserDirectory(token,
+                    new File(new File(Jenkins.get().getRootDir(), "slack-user-directory"), key + ".bin"), REFRESH_MILLIS);
+            loaded.load();
+            return loaded;
+        });
+    }
+
+    static List<SlackUserDirectory> getAll() {
+        return new ArrayList<>(DIRECTORIES.values());
+    }
+
+    /**
+     * @return whether the workspace was listed completely at least once
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @param emailAddress an email address
+     * @return the ID of the user with the address, or null if there's none
+     */
+    String get(String emailAddress) {
+        Member member = members.get(emailAddress.toLowerCase(Locale.ROOT));
+        return member != null ? member.id : null;
+    }
+
+    int size() {
+        return members.size();
+    }
+
+    /**
+     * Lists the next pages of users, starting a new listing when the last one is old enough.
+     *
+     * @param client the client to call Slack with
+     * @param maxPages the most pages to list
+     * @throws IOException if a page can't be listed, the next call continues with it
+     */
+    synchronized void listUsers(CloseableHttpClient client, int maxPages) throws IOException {
+        if (!listing) {
+            if (complete && System.currentTimeMillis() - lastCompletedMillis < refreshMillis) {
+                return;
+            }
+            listing = true;
+            cursor = null;
+            generation++;
+        }
+
+        for (int page = 0; page < maxPages; page++) {
+            if (!SlackRateLimiter.acquire(token, USERS_LIST_METHOD)) {
+                return;
+            }
+            RequestBuilder requestBuilder = RequestBuilder.get("https://slack.com/api/" + USERS_LIST_METHOD)
+                    .addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .addParameter("limit", String.valueOf(PAGE_SIZE));
+            if (cursor != null) {
+                requestBuilder.addParameter("cursor", cursor);
+            }
+            SlackApiResponse result;
+            try (CloseableHttpResponse response = client.execute(requestBuilder.build())) {
+                SlackRateLimiter.onResponse(token, USERS_LIST_METHOD, null, response);
+                int status = response.getStatusLine().getStatusCode();
+                if (status != HttpStatus.SC_OK) {
+                    throw new IOException("Listing Slack users failed with HTTP " + status);
+                }
+                result = SlackApiResponse.read(response.getEntity());
+            }
+            if (!result.isOk()) {
+                throw new IOException("Listing Slack users failed: " + result.getError());
+            }
+
+            for (Map.Entry<String, String> member : result.getMemberIds().entrySet()) {
+                members.put(member.getKey(), new Member(member.getValue(), generation));
+            }
+            String nextCursor = result.getNextCursor();
+            if (nextCursor == null || nextCursor.isEmpty()) {
+                completeListing();
+                return;
+            }
+            cursor = nextCursor;
+        }
+    }
+
+    private void completeListing() {
+        members.values().removeIf(member -> member.generation < generation);
+        listing = false;
+        cursor = null;
+        complete = true;
+        lastCompletedMillis = System.currentTimeMillis();
+        try {
+            save();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not save the Slack user directory, it will be listed again after a restart", e);
+        }
+    }
+
+    void load() {
+        try (InputStream in = Files.newInputStream(snapshot.toPath());
+             DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)))) {
+            if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a user directory: " + snapshot);
+            }
+            int size = data.readInt();
+            for (int i = 0; i < size; i++) {
+                members.put(data.readUTF(), new Member(data.readUTF(), generation));
+            }
+            complete = true;
+            lastCompletedMillis = snapshot.lastModified();
+        } catch (NoSuchFileException e) {
+            // never listed
+        } catch (IOException e) {
+            members.clear();
+            logger.log(Level.FINE, "Skipping unreadable user directory " + snapshot, e);
+        }
+    }
+
+    private void save() throws IOException {
+        Path target = snapshot.toPath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        // a copy, as lookups go on while saving
+        Map<String, Member> saved = new ConcurrentHashMap<>(members);
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(saved.size());
+            for (Map.Entry<String, Member> member : saved.entrySet()) {
+                out.writeUTF(member.getKey());
+                out.writeUTF(member.getValue().id);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class Member {
+        private final String id;
+        // the listing that last saw the user
+        private final int generation;
+
+        Member(String id, int generation) {
+            this.id = id;
+            this.generation = generation;
+        }
+    }
+}
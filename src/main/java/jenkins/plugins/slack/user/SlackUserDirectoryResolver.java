@@ -0,0 +1,40 @@
+package jenkins.plugins.slack.user;
+
+import hudson.Extension;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Resolves email addresses with an index of all the users of the workspace, built in the background
+ * from {@code users.list}, instead of a {@code users.lookupByEmail} call per address. Addresses the
+ * index doesn't have, because the workspace hasn't been listed yet or the user joined since, are
+ * looked up one by one.
+ */
+public class SlackUserDirectoryResolver extends EmailSlackUserIdResolver {
+
+    @DataBoundConstructor
+    public SlackUserDirectoryResolver() {
+        super();
+    }
+
+    @Override
+    public String resolveUserIdForEmailAddress(String emailAddress) {
+        if (StringUtils.isNotEmpty(emailAddress) && StringUtils.isNotEmpty(authToken)) {
+            SlackUserDirectory directory = SlackUserDirectory.forToken(authToken);
+            String userId = directory.get(emailAddress);
+            if (userId != null) {
+                return userId;
+            }
+        }
+        return super.resolveUserIdForEmailAddress(emailAddress);
+    }
+
+    @Extension
+    public static class DescriptorImpl extends SlackUserIdResolverDescriptor {
+
+        @Override
+        public String getDisplayName() {
+            return "Slack user directory User ID Resolver";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package jenkins.plugins.slack.user;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.Jenkins;
+import jenkins.plugins.slack.HttpClient;
+
+/**
+ * Keeps the user directories used by {@link SlackUserDirectoryResolver} up to date. Every run lists
+ * a limited number of pages per workspace, so large workspaces are listed over several runs
+ * without holding on to the rate limit of {@code users.list}.
+ */
+@Extension
+public class SlackUserDirectorySync extends AsyncPeriodicWork {
+
+    private static final long INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(
+            Long.getLong(SlackUserDirectorySync.class.getName() + ".intervalMinutes", 5));
+    private static final int PAGES_PER_RUN = Integer.getInteger(SlackUserDirectorySync.class.getName() + ".pagesPerRun", 50);
+
+    public SlackUserDirectorySync() {
+        super("Slack user directory sync");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return INTERVAL_MILLIS;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        for (SlackUserDirectory directory : SlackUserDirectory.getAll()) {
+            try {
+                directory.listUsers(HttpClient.getPooledHttpClient(Jenkins.get().getProxy()), PAGES_PER_RUN);
+                listener.getLogger().println(directory.size() + " users in the directory" + (directory.isComplete() ? "" : " so far"));
+            } catch (IOException e) {
+                listener.error("Failed to list Slack users, continuing with the next run: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package jenkins.plugins.slack.user;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Slack user IDs by email address, so committers aren't looked up with {@code users.lookupByEmail}
+ * on every build. Addresses without a Slack account are remembered too, for a shorter time so
+ * people who join Slack are found soon enough. Failed lookups, e.g. rate limited ones, aren't
+ * remembered. Entries are keyed by a digest of the token, as the same address can belong to
+ * different users in different workspaces. Addresses are looked up by the thread asking for them,
+ * outside of the cache, others asking for the same address meanwhile wait for that lookup.
+ */
+public final class SlackUserIdCache {
+
+    private static final long FOUND_NANOS = TimeUnit.MINUTES.toNanos(
+            Long.getLong(SlackUserIdCache.class.getName() + ".foundMinutes", 24 * 60));
+    private static final long NOT_FOUND_NANOS = TimeUnit.MINUTES.toNanos(
+            Long.getLong(SlackUserIdCache.class.getName() + ".notFoundMinutes", 60));
+    private static final long MAX_ENTRIES = Long.getLong(SlackUserIdCache.class.getName() + ".maxEntries", 10_000);
+
+    /**
+     * Returned by a lookup when Slack has no user with the address.
+     */
+    static final String NOT_FOUND = "";
+
+    private static final AsyncCache<String, String> USER_IDS = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfter(new Expiry<String, String>() {
+                @Override
+                public long expireAfterCreate(String key, String userId, long currentTime) {
+                    return NOT_FOUND.equals(userId) ? NOT_FOUND_NANOS : FOUND_NANOS;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, String userId, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, userId, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, String userId, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .buildAsync();
+
+    private SlackUserIdCache() {
+    }
+
+    /**
+     * @param token the token of the workspace
+     * @param emailAddress the address to find the user of
+     * @param lookup looks the address up in Slack, returns the user ID, {@link #NOT_FOUND} or null if the lookup failed
+     * @return the ID of the user, or null if there's none or the lookup failed
+     */
+    static String get(String token, String emailAddress, Function<String, String> lookup) {
+        String key = DigestUtils.sha256Hex(token) + ':' + emailAddress.toLowerCase(Locale.ROOT);
+        CompletableFuture<String> lookingUp = new CompletableFuture<>();
+        CompletableFuture<String> cached = USER_IDS.get(key, (ignored, executor) -> lookingUp);
+        if (cached == lookingUp) {
+            // a lookup completed with null is removed from the cache
+            try {
+                lookingUp.complete(lookup.apply(emailAddress));
+            } catch (RuntimeException e) {
+                lookingUp.completeExceptionally(e);
+                throw e;
+            }
+        }
+        String userId = cached.exceptionally(e -> null).join();
+        return NOT_FOUND.equals(userId) ? null : userId;
+    }
+
+    public static CacheStats getStats() {
+        return USER_IDS.synchronous().stats();
+    }
+
+    public static long getSize() {
+        return USER_IDS.synchronous().estimatedSize();
+    }
+
+    public static void clear() {
+        USER_IDS.synchronous().invalidateAll();
+    }
+}
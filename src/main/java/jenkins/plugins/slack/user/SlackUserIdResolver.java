@@ -31,12 +31,24 @@ import hudson.model.Run;
 import hudson.model.User;
 import hudson.scm.ChangeLogSet;
 import hudson.scm.ChangeLogSet.Entry;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -49,6 +61,12 @@ public abstract class SlackUserIdResolver extends AbstractDescribableImpl<SlackU
 
     private static final Logger LOGGER = Logger.getLogger(SlackUserIdResolver.class.getName());
 
+    private static final int MAX_PARALLEL_RESOLUTIONS = Integer.getInteger(SlackUserIdResolver.class.getName() + ".maxParallelResolutions", 4);
+    // bounded, and the caller resolves itself once all threads are busy
+    private static final ExecutorService RESOLVE_EXECUTOR = new ThreadPoolExecutor(0, MAX_PARALLEL_RESOLUTIONS, 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), "Slack user ID resolution"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
     protected String authToken;
     protected CloseableHttpClient httpClient;
 
@@ -60,7 +78,8 @@ public abstract class SlackUserIdResolver extends AbstractDescribableImpl<SlackU
     public final String findOrResolveUserId(User user) {
         String userId = null;
         SlackUserProperty userProperty = user.getProperty(SlackUserProperty.class);
-        if (userProperty != null) {
+        final boolean hasUserProperty = userProperty != null;
+        if (hasUserProperty) {
             userId = userProperty.getUserId();
         } else {
             userProperty = new SlackUserProperty();
@@ -70,10 +89,15 @@ public abstract class SlackUserIdResolver extends AbstractDescribableImpl<SlackU
             userId = resolveUserId(user);
             if (userId != null) {
                 userProperty.setUserId(userId);
-                try {
-                    user.addProperty(userProperty);
-                } catch (IOException ex) {
-                    LOGGER.log(Level.WARNING, "Failed to add SlackUserProperty to user: " + user.toString(), ex);
+                if (hasUserProperty) {
+                    // the ID is in use right away, the user is written in the background
+                    SlackUserPropertySaver.saveLater(user);
+                } else {
+                    try {
+                        user.addProperty(userProperty);
+                    } catch (IOException ex) {
+                        LOGGER.log(Level.WARNING, "Failed to add SlackUserProperty to user: " + user.toString(), ex);
+                    }
                 }
             }
         }
@@ -84,31 +108,75 @@ public abstract class SlackUserIdResolver extends AbstractDescribableImpl<SlackU
 
     protected abstract String resolveUserId(User user);
 
+    /**
+     * Resolves the authors of all the changes of the run, every author only once.
+     *
+     * @param run the run
+     * @return the IDs of the authors, in the order of their first change
+     */
     @SuppressWarnings("unchecked")
     public List<String> resolveUserIdsForRun(Run run) {
+        List<ChangeLogSet> changeLogSets;
         if (run instanceof RunWithSCM) {
-            RunWithSCM r = (RunWithSCM) run;
-            return resolveUserIdsForChangeLogSets(r.getChangeSets());
+            changeLogSets = ((RunWithSCM) run).getChangeSets();
         } else if (run instanceof AbstractBuild) {
-            AbstractBuild build = (AbstractBuild) run;
-            return resolveUserIdsForChangeLogSets(build.getChangeSets());
+            changeLogSets = ((AbstractBuild) run).getChangeSets();
         } else {
             return Collections.emptyList();
         }
+        return resolveUserIdsForChangeLogSets(changeLogSets).stream()
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     public List<String> resolveUserIdsForChangeLogSet(ChangeLogSet changeLogSet) {
-        return Arrays.stream(changeLogSet.getItems())
-                .map(item -> findOrResolveUserId(((Entry) item).getAuthor()))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return resolveUserIdsForChangeLogSets(Collections.singletonList(changeLogSet));
     }
 
+    /**
+     * Resolves the author of every change. Authors of several changes are resolved once, and distinct
+     * authors are resolved in parallel.
+     *
+     * @param changeLogSets the changes
+     * @return the ID of the author of every change, in the order of the changes
+     */
     public List<String> resolveUserIdsForChangeLogSets(List<ChangeLogSet> changeLogSets) {
-        return changeLogSets.stream()
-                .map(this::resolveUserIdsForChangeLogSet)
-                .flatMap(Collection::stream)
+        List<User> authors = changeLogSets.stream()
+                .flatMap(changeLogSet -> Arrays.stream(changeLogSet.getItems()))
+                .map(item -> ((Entry) item).getAuthor())
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        Map<User, String> userIds = resolveUserIds(new LinkedHashSet<>(authors));
+        return authors.stream()
+                .map(userIds::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Map<User, String> resolveUserIds(Set<User> users) {
+        Map<User, String> userIds = new HashMap<>();
+        if (users.size() == 1) {
+            User user = users.iterator().next();
+            userIds.put(user, findOrResolveUserId(user));
+            return userIds;
+        }
+
+        Map<User, Future<String>> resolutions = new LinkedHashMap<>();
+        for (User user : users) {
+            resolutions.put(user, RESOLVE_EXECUTOR.submit(() -> findOrResolveUserId(user)));
+        }
+        for (Map.Entry<User, Future<String>> resolution : resolutions.entrySet()) {
+            try {
+                userIds.put(resolution.getKey(), resolution.getValue().get());
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "Failed to resolve the Slack user ID of " + resolution.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resolutions.values().forEach(future -> future.cancel(true));
+                break;
+            }
+        }
+        return userIds;
     }
 
     public void setHttpClient(CloseableHttpClient httpClient) {
@@ -35,7 +35,8 @@ import org.kohsuke.stapler.export.Exported;
 
 public class SlackUserProperty extends UserProperty {
 
-    private String userId;
+    // set by resolvers on other threads, the user is saved later
+    private volatile String userId;
     private boolean disableNotifications;
 
     @DataBoundConstructor
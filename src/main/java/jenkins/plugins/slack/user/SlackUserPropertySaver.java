@@ -0,0 +1,80 @@
+package jenkins.plugins.slack.user;
+
+import hudson.init.Terminator;
+import hudson.model.User;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Saves users whose {@link SlackUserProperty} got a newly resolved ID in the background. The ID is
+ * set on the property right away, saves are delayed a little so a build resolving many committers
+ * writes every user once, off the build thread, instead of one {@code config.xml} after the other.
+ */
+public final class SlackUserPropertySaver {
+
+    private static final Logger logger = Logger.getLogger(SlackUserPropertySaver.class.getName());
+
+    private static final long DELAY_MILLIS = Long.getLong(SlackUserPropertySaver.class.getName() + ".delayMillis", 2000);
+
+    private static final SlackUserPropertySaver INSTANCE = new SlackUserPropertySaver(DELAY_MILLIS);
+
+    private final long delayMillis;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Slack user property writer"));
+    private final Set<User> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    SlackUserPropertySaver(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Saves the user soon. Saving the same user again before that only saves it once.
+     *
+     * @param user a user whose properties were changed in memory
+     */
+    static void saveLater(User user) {
+        INSTANCE.add(user);
+    }
+
+    @Terminator
+    public static void shutdown() {
+        INSTANCE.writer.shutdownNow();
+        INSTANCE.flush();
+    }
+
+    void add(User user) {
+        pending.add(user);
+        if (scheduled.compareAndSet(false, true)) {
+            writer.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void flush() {
+        // users added from now on are saved by the next flush, at worst some are saved twice
+        scheduled.set(false);
+        for (Iterator<User> users = pending.iterator(); users.hasNext(); ) {
+            User user = users.next();
+            users.remove();
+            try {
+                user.save();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to save the Slack user ID of " + user, e);
+            }
+        }
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+}
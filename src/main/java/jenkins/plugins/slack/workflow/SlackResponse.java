@@ -1,9 +1,12 @@
 package jenkins.plugins.slack.workflow;
 
+import java.io.IOException;
 import java.io.Serializable;
+import jenkins.plugins.slack.SlackApiResponse;
 import jenkins.plugins.slack.SlackService;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 public class SlackResponse implements Serializable {
@@ -31,6 +34,32 @@ public class SlackResponse implements Serializable {
         this.slackService = slackService;
     }
 
+    private SlackResponse(SlackApiResponse slackApiResponse, SlackService slackService) {
+        this.channelId = slackApiResponse.getChannel();
+        this.ts = slackApiResponse.getTs();
+        this.slackService = slackService;
+    }
+
+    /**
+     * Creates a response from the raw body returned by the Slack API.
+     *
+     * @param responseString - the response body, null when the API does not return one (e.g. webhooks)
+     * @param slackService - the service used for follow up requests such as reactions
+     *
+     * @return the parsed response
+     * @throws org.json.JSONException if the body is not valid JSON
+     */
+    public static SlackResponse fromResponseString(String responseString, SlackService slackService) {
+        if (responseString == null) {
+            return new SlackResponse(slackService);
+        }
+        try {
+            return new SlackResponse(SlackApiResponse.read(responseString), slackService);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
     @Whitelisted
     public String getChannelId() {
         return channelId;
@@ -11,6 +11,7 @@ import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.util.ListBoxModel;
+import java.io.IOException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -22,6 +23,8 @@ import jenkins.plugins.slack.SlackRequest;
 import jenkins.plugins.slack.SlackService;
 import jenkins.plugins.slack.StandardSlackService;
 import jenkins.plugins.slack.StandardSlackServiceBuilder;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import jenkins.plugins.slack.logging.SlackNotificationsLogger;
 import jenkins.plugins.slack.user.SlackUserIdResolver;
 import net.sf.json.JSON;
 import net.sf.json.JSONArray;
@@ -373,8 +376,7 @@ public class SlackSendStep extends Step {
             if (publishSuccess) {
                 if (responseString != null) {
                     try {
-                        org.json.JSONObject result = new org.json.JSONObject(responseString);
-                        response = new SlackResponse(result, slackService);
+                        response = SlackResponse.fromResponseString(responseString, slackService);
                     } catch (org.json.JSONException ex) {
                         listener.error(Messages.failedToParseSlackResponse(responseString));
                         if (step.failOnError) {
@@ -454,7 +456,21 @@ public class SlackSendStep extends Step {
                         .withPopulatedToken(populatedToken)
                         .withNotifyCommitters(notifyCommitters)
                         .withSlackUserIdResolver(userIdResolver)
+                        .withResolveChannelIds(Jenkins.get().getDescriptorByType(SlackNotifier.DescriptorImpl.class).isResolveChannelIds())
+                        .withLogger(createLogger())
                     );
         }
+
+        private BuildAwareLogger createLogger() {
+            try {
+                TaskListener listener = getContext().get(TaskListener.class);
+                return listener != null ? new SlackNotificationsLogger(logger, listener) : null;
+            } catch (IOException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
     }
 }
@@ -1,5 +1,9 @@
 package jenkins.plugins.slack;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpStatus;
@@ -10,19 +14,22 @@ import org.apache.http.protocol.HttpContext;
 
 public class CloseableHttpClientStub extends CloseableHttpClient {
 
-    private int numberOfCallsToExecuteMethod;
-    private int httpStatus;
-    private boolean failAlternateResponses = false;
-    private HttpUriRequest lastRequest = null;
-    private CloseableHttpResponse httpResponse = null;
+    // rooms are posted concurrently, so calls can come from several threads
+    private final AtomicInteger numberOfCallsToExecuteMethod = new AtomicInteger();
+    private final List<HttpUriRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    private volatile int httpStatus;
+    private volatile boolean failAlternateResponses = false;
+    private volatile HttpUriRequest lastRequest = null;
+    private volatile CloseableHttpResponse httpResponse = null;
 
     @Override
     public CloseableHttpResponse execute(HttpUriRequest post) {
         lastRequest = post;
-        numberOfCallsToExecuteMethod++;
+        requests.add(post);
+        int numberOfCalls = numberOfCallsToExecuteMethod.incrementAndGet();
         if (httpResponse != null) {
             return httpResponse;
-        } else if (failAlternateResponses && (numberOfCallsToExecuteMethod % 2 == 0)) {
+        } else if (failAlternateResponses && (numberOfCalls % 2 == 0)) {
             return new CloseableHttpResponseStub(HttpStatus.SC_NOT_FOUND);
         } else {
             return new CloseableHttpResponseStub(httpStatus);
@@ -52,7 +59,7 @@ public class CloseableHttpClientStub extends CloseableHttpClient {
     }
 
     public int getNumberOfCallsToExecuteMethod() {
-        return numberOfCallsToExecuteMethod;
+        return numberOfCallsToExecuteMethod.get();
     }
 
     public void setHttpStatus(int httpStatus) {
@@ -70,4 +77,8 @@ public class CloseableHttpClientStub extends CloseableHttpClient {
     public HttpUriRequest getLastRequest() {
         return lastRequest;
     }
+
+    public List<HttpUriRequest> getRequests() {
+        return new ArrayList<>(requests);
+    }
 }
@@ -0,0 +1,116 @@
+package jenkins.plugins.slack;
+
+import hudson.tasks.test.TestResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FailedTestsRendererTest {
+
+    @Test
+    public void groupsFailedTestsByClass() {
+        FailedTestsRenderer renderer = new FailedTestsRenderer(3000, 5, 10, 1000);
+
+        List<String> pages = renderer.render(3, Arrays.asList(
+                failedTest("com.example.FooTest.first"),
+                failedTest("com.example.BarTest.second"),
+                failedTest("com.example.FooTest.third")));
+
+        assertEquals(Arrays.asList("\n3 Failed Tests:\n"
+                + "\tFooTest:\n\t\tfirst after 1 sec\n\t\tthird after 1 sec\n"
+                + "\tBarTest:\n\t\tsecond after 1 sec\n"), pages);
+    }
+
+    @Test
+    public void countsTheTestsOfAClassAfterTheFirstOnes() {
+        FailedTestsRenderer renderer = new FailedTestsRenderer(3000, 5, 2, 1000);
+
+        List<String> pages = renderer.render(4, Arrays.asList(
+                failedTest("FooTest.first"),
+                failedTest("FooTest.second"),
+                failedTest("FooTest.third"),
+                failedTest("FooTest.fourth")));
+
+        assertEquals(Arrays.asList("\n4 Failed Tests:\n"
+                + "\tFooTest:\n\t\tfirst after 1 sec\n\t\tsecond after 1 sec\n\t\t+2 more\n"), pages);
+    }
+
+    @Test
+    public void continuesOnMorePagesWithTheClassRepeated() {
+        FailedTestsRenderer renderer = new FailedTestsRenderer(70, 3, 10, 1000);
+
+        List<String> pages = renderer.render(4, Arrays.asList(
+                failedTest("FooTest.first"),
+                failedTest("FooTest.second"),
+                failedTest("FooTest.third"),
+                failedTest("FooTest.fourth")));
+
+        assertEquals(Arrays.asList(
+                "\n4 Failed Tests:\n\tFooTest:\n\t\tfirst after 1 sec\n\t\tsecond after 1 sec\n",
+                "Failed Tests, page 2 of 2:\n\tFooTest:\n\t\tthird after 1 sec\n\t\tfourth after 1 sec\n"), pages);
+    }
+
+    @Test
+    public void stopsReadingOnceThePagesAreFull() {
+        FailedTestsRenderer renderer = new FailedTestsRenderer(100, 2, 10, 1000);
+        ReadCountingList failedTests = new ReadCountingList(100000);
+
+        List<String> pages = renderer.render(100000, failedTests);
+
+        assertEquals(2, pages.size());
+        assertTrue(failedTests.read < 20);
+        assertTrue(pages.get(1), pages.get(1).endsWith("more\n"));
+        int listed = pages.get(0).split("after").length - 1 + pages.get(1).split("after").length - 1;
+        assertTrue(pages.get(1), pages.get(1).endsWith("\tand " + (100000 - listed) + " more\n"));
+    }
+
+    @Test
+    public void stopsReadingAfterTheMaximumNumberOfTests() {
+        FailedTestsRenderer renderer = new FailedTestsRenderer(3000, 5, 1, 50);
+        ReadCountingList failedTests = new ReadCountingList(100000);
+
+        List<String> pages = renderer.render(100000, failedTests);
+
+        assertEquals(50, failedTests.read);
+        assertEquals(Arrays.asList("\n100000 Failed Tests:\n"
+                + "\tFooTest:\n\t\ttest0 after 1 sec\n\t\t+49 more\n\tand 99950 more\n"), pages);
+    }
+
+    private static TestResult failedTest(String fullDisplayName) {
+        TestResult failedTest = mock(TestResult.class);
+        when(failedTest.getFullDisplayName()).thenReturn(fullDisplayName);
+        when(failedTest.getDurationString()).thenReturn("1 sec");
+        return failedTest;
+    }
+
+    private static class ReadCountingList extends ArrayList<TestResult> {
+        private final int size;
+        int read;
+
+        ReadCountingList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<TestResult> iterator() {
+            return new Iterator<TestResult>() {
+                @Override
+                public boolean hasNext() {
+                    return read < size;
+                }
+
+                @Override
+                public TestResult next() {
+                    return failedTest("com.example.FooTest.test" + read++);
+                }
+            };
+        }
+    }
+}
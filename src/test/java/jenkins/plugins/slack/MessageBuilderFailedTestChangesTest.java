@@ -0,0 +1,120 @@
+package jenkins.plugins.slack;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import jenkins.plugins.slack.decisions.FailedTestHashes;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MessageBuilderFailedTestChangesTest {
+
+    private static final String START = "project - build ";
+
+    private final TestResult first = test("FooTest.first");
+    private final TestResult second = test("FooTest.second");
+    private final TestResult third = test("FooTest.third");
+
+    private AbstractBuild build;
+    private AbstractTestResultAction action;
+    private TestResult result;
+
+    @Before
+    public void setUp() {
+        build = mock(AbstractBuild.class);
+        AbstractProject project = mock(AbstractProject.class);
+        action = mock(AbstractTestResultAction.class);
+        result = mock(TestResult.class);
+
+        when(build.getDisplayName()).thenReturn("build");
+        when(build.getProject()).thenReturn(project);
+        when(build.getParent()).thenReturn(project);
+        when(project.getFullDisplayName()).thenReturn("project");
+        when(build.getAction(AbstractTestResultAction.class)).thenReturn(action);
+        doReturn(result).when(action).getResult();
+    }
+
+    @Test
+    public void listsTheNewlyFailedTests() {
+        failed(first, second);
+        passed(third);
+
+        ActiveNotifier.MessageBuilder message = messageBuilder().appendFailedTestChanges(FailedTestHashes.of(Arrays.asList(first)));
+
+        assertEquals(START + "\n1 New Failed Tests:\n\tFooTest:\n\t\tsecond after 1 sec\n", message.toString());
+        assertTrue(message.getThreadReplies().isEmpty());
+    }
+
+    @Test
+    public void findsTheFixedTestsAmongThePassedOnes() {
+        failed(second);
+        passed(third, first);
+
+        ActiveNotifier.MessageBuilder message = messageBuilder().appendFailedTestChanges(FailedTestHashes.of(Arrays.asList(first, second)));
+
+        assertEquals(START + "\n1 Fixed Tests:\n\tFooTest:\n\t\tfirst after 1 sec\n", message.toString());
+    }
+
+    @Test
+    public void listsNewlyFailedAndFixedTests() {
+        failed(third);
+        passed(first, second);
+
+        ActiveNotifier.MessageBuilder message = messageBuilder().appendFailedTestChanges(FailedTestHashes.of(Arrays.asList(first)));
+
+        assertEquals(START + "\n1 New Failed Tests:\n\tFooTest:\n\t\tthird after 1 sec\n"
+                + "\n1 Fixed Tests:\n\tFooTest:\n\t\tfirst after 1 sec\n", message.toString());
+    }
+
+    @Test
+    public void countsTheTestsStillFailing() {
+        failed(first, second);
+        passed(third);
+
+        ActiveNotifier.MessageBuilder message = messageBuilder().appendFailedTestChanges(FailedTestHashes.of(Arrays.asList(first, second)));
+
+        assertEquals(START + "\nNo new failed tests, 2 still failing", message.toString());
+    }
+
+    @Test
+    public void listsAllFailedTestsWithoutThoseOfThePreviousBuild() {
+        failed(first, second);
+        when(action.getFailCount()).thenReturn(2);
+
+        ActiveNotifier.MessageBuilder message = messageBuilder().appendFailedTestChanges(null);
+
+        assertEquals(START + "\n2 Failed Tests:\n\tFooTest:\n\t\tfirst after 1 sec\n\t\tsecond after 1 sec\n", message.toString());
+    }
+
+    private ActiveNotifier.MessageBuilder messageBuilder() {
+        return new ActiveNotifier.MessageBuilder(mock(SlackNotifier.class), build, mock(BuildAwareLogger.class), mock(TokenExpander.class));
+    }
+
+    private void failed(TestResult... tests) {
+        List<TestResult> failedTests = Arrays.asList(tests);
+        doReturn(failedTests).when(action).getFailedTests();
+    }
+
+    private void passed(TestResult... tests) {
+        doReturn(Collections.unmodifiableList(Arrays.asList(tests))).when(result).getPassedTests();
+    }
+
+    private static TestResult test(String fullDisplayName) {
+        TestResult test = mock(TestResult.class);
+        when(test.getId()).thenReturn(fullDisplayName);
+        when(test.getFullDisplayName()).thenReturn(fullDisplayName);
+        when(test.getDurationString()).thenReturn("1 sec");
+        return test;
+    }
+}
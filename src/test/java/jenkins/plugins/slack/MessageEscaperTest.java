@@ -0,0 +1,75 @@
+package jenkins.plugins.slack;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MessageEscaperTest {
+
+    // the pieces the old regular expressions and MessageFormat cared about, and some they didn't
+    private static final String[] PIECES = {
+        "<a", "<A", "<a ", "<a href=", " href=", "HREF = ", "href='", "href=\"", "name=x", ">", "</a>", "</A>", "</a",
+        "<", "&", "'", "''", "\"", "{", "}", "{0}", "%", "=", " ", "\t", "\n", "\r", "x", "target", "0", "|",
+        "\u00e9", "\u2028", "\u0085", "\ud83d\ude00",
+    };
+
+    @Test
+    public void escapesEntities() {
+        assertEquals("a &amp; b &lt; c &gt; d", MessageEscaper.escape("a & b < c > d"));
+    }
+
+    @Test
+    public void rewritesLinks() {
+        assertEquals("see <http://example.com|the build>", MessageEscaper.escape("see <a href=\"http://example.com\">the build</a>"));
+        assertEquals("<http://example.com|x>", MessageEscaper.escape("<A class='c' HREF = http://example.com>x</A>"));
+    }
+
+    @Test
+    public void keepsTagsWithoutLinks() {
+        assertEquals("&lt;a name=x&gt;y&lt;/a&gt;", MessageEscaper.escape("<a name=x>y</a>"));
+    }
+
+    @Test
+    public void keepsWhatMessageFormatDidToQuotes() {
+        assertEquals("dont", MessageEscaper.escape("don't"));
+        assertEquals("don't", MessageEscaper.escape("don''t"));
+        assertEquals("its 50{0}", MessageEscaper.escape("it's 50%"));
+    }
+
+    @Test
+    public void leavesBracesInTagsWithoutLinksToTheOldEscaping() {
+        assertNull(MessageEscaper.scan("<a name=x>{0}</a> {"));
+        assertEquals(MessageEscaper.legacyEscape("<a name=x>{0}</a> {"), MessageEscaper.escape("<a name=x>{0}</a> {"));
+    }
+
+    @Test
+    public void matchesTheOldEscaping() {
+        Random random = new Random(42);
+        int scanned = 0;
+        for (int run = 0; run < 200_000; run++) {
+            StringBuilder input = new StringBuilder();
+            int pieces = random.nextInt(16);
+            for (int i = 0; i < pieces; i++) {
+                input.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            String string = input.toString();
+
+            String expected;
+            try {
+                expected = MessageEscaper.legacyEscape(string);
+            } catch (IllegalArgumentException e) {
+                expected = null;
+            }
+            String actual = MessageEscaper.scan(string);
+            if (actual != null) {
+                assertEquals(string, expected, actual);
+                scanned++;
+            }
+        }
+        // only braces in tags without links are left to the old escaping
+        assertTrue("scanned " + scanned, scanned > 190_000);
+    }
+}
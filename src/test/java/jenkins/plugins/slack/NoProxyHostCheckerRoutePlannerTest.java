@@ -0,0 +1,63 @@
+package jenkins.plugins.slack;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NoProxyHostCheckerRoutePlannerTest {
+
+    private static final HttpHost PROXY = new HttpHost("proxy.example.com", 3128);
+    private static final HttpHost SLACK = new HttpHost("slack.com", -1, "https");
+    private static final HttpHost INTRANET = new HttpHost("hooks.intranet.example.com", -1, "https");
+
+    @Test
+    public void hostsOnTheNoProxyListAreReachedDirectly() throws HttpException {
+        NoProxyHostCheckerRoutePlanner planner = new NoProxyHostCheckerRoutePlanner("localhost, *.intranet.example.com", PROXY);
+
+        assertNull(route(planner, INTRANET).getProxyHost());
+        assertNull(route(planner, INTRANET).getProxyHost());
+        assertEquals(PROXY, route(planner, SLACK).getProxyHost());
+    }
+
+    @Test
+    public void everyHostUsesTheProxyWithoutANoProxyList() throws HttpException {
+        NoProxyHostCheckerRoutePlanner planner = new NoProxyHostCheckerRoutePlanner(null, PROXY);
+
+        assertEquals(PROXY, route(planner, INTRANET).getProxyHost());
+        assertEquals(PROXY, route(planner, SLACK).getProxyHost());
+    }
+
+    @Test
+    public void changedNoProxyListIsUsedByNewPlanners() throws HttpException {
+        NoProxyHostCheckerRoutePlanner before = new NoProxyHostCheckerRoutePlanner("*.intranet.example.com", PROXY);
+        assertNull(route(before, INTRANET).getProxyHost());
+
+        NoProxyHostCheckerRoutePlanner after = new NoProxyHostCheckerRoutePlanner("*slack.com", PROXY);
+
+        assertEquals(PROXY, route(after, INTRANET).getProxyHost());
+        assertNull(route(after, SLACK).getProxyHost());
+        assertNull(route(before, INTRANET).getProxyHost());
+    }
+
+    @Test
+    public void changedProxyIsUsedForRememberedHosts() throws HttpException {
+        NoProxyHostCheckerRoutePlanner planner = new NoProxyHostCheckerRoutePlanner("*.intranet.example.com", PROXY);
+        assertEquals(PROXY, route(planner, SLACK).getProxyHost());
+
+        HttpHost otherProxy = new HttpHost("other-proxy.example.com", 8080);
+        planner.setProxy(otherProxy);
+
+        assertEquals(otherProxy, route(planner, SLACK).getProxyHost());
+        assertNull(route(planner, INTRANET).getProxyHost());
+    }
+
+    private static HttpRoute route(NoProxyHostCheckerRoutePlanner planner, HttpHost target) throws HttpException {
+        return planner.determineRoute(target, new HttpGet(target.toURI()), new BasicHttpContext());
+    }
+}
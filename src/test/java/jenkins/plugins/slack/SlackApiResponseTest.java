@@ -0,0 +1,74 @@
+package jenkins.plugins.slack;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.http.entity.StringEntity;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SlackApiResponseTest {
+
+    @Test
+    public void readsPostedMessage() throws IOException {
+        SlackApiResponse response = SlackApiResponse.read("{\"ok\":true,\"channel\":\"C1234\",\"ts\":\"1543931401.000500\","
+                + "\"message\":{\"ts\":\"1543931401.000500\",\"blocks\":[{\"type\":\"section\"}]}}");
+
+        assertTrue(response.isOk());
+        assertEquals("C1234", response.getChannel());
+        assertEquals("1543931401.000500", response.getTs());
+        assertNull(response.getError());
+    }
+
+    @Test
+    public void readsError() throws IOException {
+        SlackApiResponse response = SlackApiResponse.read("{\"ok\":false,\"error\":\"channel_not_found\"}");
+
+        assertFalse(response.isOk());
+        assertEquals("channel_not_found", response.getError());
+    }
+
+    @Test
+    public void readsChannelPage() throws IOException {
+        SlackApiResponse response = SlackApiResponse.read(new StringEntity("{\"ok\":true,\"channels\":["
+                + "{\"id\":\"C1\",\"name\":\"general\",\"topic\":{\"value\":\"id\"}},"
+                + "{\"name\":\"random\",\"purpose\":{\"value\":\"name\"},\"id\":\"C2\"}],"
+                + "\"response_metadata\":{\"next_cursor\":\"dGVhbTpDMDYxRkE1UEI=\"}}"));
+
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("general", "C1");
+        expected.put("random", "C2");
+        assertEquals(expected, response.getChannelIds());
+        assertEquals("dGVhbTpDMDYxRkE1UEI=", response.getNextCursor());
+    }
+
+    @Test
+    public void readsUserId() throws IOException {
+        SlackApiResponse response = SlackApiResponse.read("{\"ok\":true,\"user\":{\"id\":\"W012A3CDE\",\"profile\":{\"id\":\"other\"}}}");
+
+        assertEquals("W012A3CDE", response.getUserId());
+    }
+
+    @Test
+    public void readsMemberPage() throws IOException {
+        SlackApiResponse response = SlackApiResponse.read("{\"ok\":true,\"members\":["
+                + "{\"id\":\"W1\",\"profile\":{\"email\":\"Spengler@Ghostbusters.example.com\",\"id\":\"other\"}},"
+                + "{\"id\":\"W2\",\"deleted\":true,\"profile\":{\"email\":\"gone@ghostbusters.example.com\"}},"
+                + "{\"id\":\"B3\",\"is_bot\":true,\"profile\":{\"email\":\"bot@ghostbusters.example.com\"}},"
+                + "{\"id\":\"W4\",\"profile\":{\"real_name\":\"No Email\"}}],"
+                + "\"response_metadata\":{\"next_cursor\":\"\"}}");
+
+        assertEquals(Collections.singletonMap("spengler@ghostbusters.example.com", "W1"), response.getMemberIds());
+        assertEquals("", response.getNextCursor());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsInvalidJson() throws IOException {
+        SlackApiResponse.read("<html>Bad Gateway</html>");
+    }
+}
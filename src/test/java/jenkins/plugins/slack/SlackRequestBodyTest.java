@@ -0,0 +1,76 @@
+package jenkins.plugins.slack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import net.sf.json.JSONArray;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlackRequestBodyTest {
+
+    @Test
+    public void bodyContainsTheMessageAndTheRoom() throws IOException {
+        JSONArray attachments = JSONArray.fromObject("[{\"fallback\":\"h\u00e9llo\",\"color\":\"good\"}]");
+        SlackRequest slackRequest = SlackRequest.builder().withMessage("message \"quoted\"").withAttachments(attachments).build();
+
+        JSONObject body = parse(new SlackRequestBody(slackRequest, false, null, null).forRoom("#general"));
+
+        assertEquals("#general", body.getString("channel"));
+        assertEquals("message \"quoted\"", body.getString("text"));
+        assertTrue(new org.json.JSONArray(attachments.toString()).similar(body.getJSONArray("attachments")));
+        assertEquals("1", body.getString("link_names"));
+        assertEquals("true", body.getString("as_user"));
+        assertFalse(body.has("thread_ts"));
+    }
+
+    @Test
+    public void threadIsTakenFromTheRoom() throws IOException {
+        SlackRequest slackRequest = SlackRequest.builder().withMessage("message").build();
+
+        SlackRequestBody.RoomEntity entity = new SlackRequestBody(slackRequest, true, "ghost", "bot").forRoom("#general:1543931401.000500");
+        JSONObject body = parse(entity);
+
+        assertEquals("#general", entity.getChannel());
+        assertEquals("#general", body.getString("channel"));
+        assertEquals("1543931401.000500", body.getString("thread_ts"));
+        assertEquals("true", body.getString("reply_broadcast"));
+        assertEquals("ghost", body.getString("icon_emoji"));
+        assertEquals("bot", body.getString("username"));
+        assertFalse(body.has("as_user"));
+    }
+
+    @Test
+    public void roomsShareTheMessage() throws IOException {
+        SlackRequest slackRequest = SlackRequest.builder().withMessage("message").withTimestamp("123.456").build();
+        SlackRequestBody requestBody = new SlackRequestBody(slackRequest, false, null, null);
+
+        assertEquals("#room1", parse(requestBody.forRoom("#room1")).getString("channel"));
+        assertEquals("#room2", parse(requestBody.forRoom("#room2")).getString("channel"));
+        assertEquals("123.456", parse(requestBody.forRoom("#room2")).getString("ts"));
+    }
+
+    @Test
+    public void entityIsRepeatableAndWritesItsContentLength() throws IOException {
+        SlackRequest slackRequest = SlackRequest.builder().withMessage("\u00fcn\u00efc\u00f6d\u00e9").build();
+        SlackRequestBody.RoomEntity entity = new SlackRequestBody(slackRequest, false, null, null).forRoom("#general");
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        entity.writeTo(written);
+
+        assertTrue(entity.isRepeatable());
+        assertEquals(entity.getContentLength(), written.size());
+        assertEquals(new String(written.toByteArray(), StandardCharsets.UTF_8), EntityUtils.toString(entity, StandardCharsets.UTF_8));
+        assertEquals(entity.toString(), EntityUtils.toString(entity, StandardCharsets.UTF_8));
+    }
+
+    // strict, unlike json-lib which accepts e.g. missing or trailing commas
+    private static JSONObject parse(SlackRequestBody.RoomEntity entity) throws IOException {
+        return new JSONObject(EntityUtils.toString(entity, StandardCharsets.UTF_8));
+    }
+}
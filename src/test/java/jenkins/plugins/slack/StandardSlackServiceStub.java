@@ -1,8 +1,11 @@
 package jenkins.plugins.slack;
 
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+
 public class StandardSlackServiceStub extends StandardSlackService {
 
     private CloseableHttpClientStub httpClientStub;
+    private CloseableHttpAsyncClient httpAsyncClient;
 
     public StandardSlackServiceStub(StandardSlackServiceBuilder standardSlackServiceBuilder) {
         super(standardSlackServiceBuilder);
@@ -16,4 +19,13 @@ public class StandardSlackServiceStub extends StandardSlackService {
     public void setHttpClient(CloseableHttpClientStub httpClientStub) {
         this.httpClientStub = httpClientStub;
     }
+
+    @Override
+    public CloseableHttpAsyncClient getHttpAsyncClient() {
+        return httpAsyncClient;
+    }
+
+    public void setHttpAsyncClient(CloseableHttpAsyncClient httpAsyncClient) {
+        this.httpAsyncClient = httpAsyncClient;
+    }
 }
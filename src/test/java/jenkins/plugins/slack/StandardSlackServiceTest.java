@@ -1,11 +1,34 @@
 package jenkins.plugins.slack;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import jenkins.plugins.slack.workflow.SlackResponse;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class StandardSlackServiceTest {
     /**
@@ -83,6 +106,56 @@ public class StandardSlackServiceTest {
         assertEquals(3, service.getHttpClient().getNumberOfCallsToExecuteMethod());
     }
 
+    @Test
+    public void publishToMultipleRoomsSendsEveryRoomItsOwnChannel() throws IOException {
+        StandardSlackServiceStub service = new StandardSlackServiceStub(
+                StandardSlackService.builder()
+                        .withBaseUrl("")
+                        .withTeamDomain("domain")
+                        .withBotUser(true)
+                        .withRoomId("#room1,#room2,#room3")
+                        .withPopulatedToken("token"));
+        CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpStatus(HttpStatus.SC_OK);
+        service.setHttpClient(httpClientStub);
+        assertTrue(service.publish("message"));
+
+        Set<String> channels = new HashSet<>();
+        for (HttpUriRequest request : httpClientStub.getRequests()) {
+            String body = EntityUtils.toString(((HttpPost) request).getEntity());
+            channels.add(new org.json.JSONObject(body).getString("channel"));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("#room1", "#room2", "#room3")), channels);
+    }
+
+    @Test
+    public void publishWithThreadRepliesPostsTheRepliesInTheThreadOfTheMessage() throws IOException {
+        StandardSlackServiceStub service = new StandardSlackServiceStub(
+                StandardSlackService.builder()
+                        .withBaseUrl("")
+                        .withTeamDomain("domain")
+                        .withBotUser(true)
+                        .withRoomId("#room1")
+                        .withPopulatedToken("token"));
+        CloseableHttpResponseStub response = new CloseableHttpResponseStub(HttpStatus.SC_OK);
+        response.setEntity(new StringEntity("{\"ok\":true,\"channel\":\"C0123456789\",\"ts\":\"1543931401.000500\"}"));
+        CloseableHttpClientStub httpClientStub = new CloseableHttpClientStub();
+        httpClientStub.setHttpResponse(response);
+        service.setHttpClient(httpClientStub);
+        assertTrue(service.publishWithThreadReplies("message", Arrays.asList("first reply", "second reply"), "good"));
+
+        List<HttpUriRequest> requests = httpClientStub.getRequests();
+        assertEquals(3, requests.size());
+        org.json.JSONObject message = new org.json.JSONObject(EntityUtils.toString(((HttpPost) requests.get(0)).getEntity()));
+        assertEquals("#room1", message.getString("channel"));
+        assertFalse(message.has("thread_ts"));
+        for (HttpUriRequest request : requests.subList(1, 3)) {
+            org.json.JSONObject reply = new org.json.JSONObject(EntityUtils.toString(((HttpPost) request).getEntity()));
+            assertEquals("C0123456789", reply.getString("channel"));
+            assertEquals("1543931401.000500", reply.getString("thread_ts"));
+        }
+    }
+
     @Test
     public void successfulPublishToASingleRoomReturnsTrue() {
         StandardSlackServiceStub service = new StandardSlackServiceStub(
@@ -318,4 +391,77 @@ public class StandardSlackServiceTest {
         assertTrue(service.removeReaction("#my-room", "12345", "thumbup"));
     }
 
+    @Test
+    public void publishAsyncToMultipleRoomsSendsAMessageToEveryRoom() throws Exception {
+        StandardSlackServiceStub service = new StandardSlackServiceStub(
+                StandardSlackService.builder()
+                        .withBaseUrl("")
+                        .withTeamDomain("domain")
+                        .withBotUser(false)
+                        .withRoomId("#room1,#room2,#room3")
+                        .withPopulatedToken("token"));
+        CloseableHttpAsyncClient httpAsyncClient = asyncClientRespondingWith(HttpStatus.SC_OK);
+        service.setHttpAsyncClient(httpAsyncClient);
+
+        assertNotNull(service.publishAsync(SlackRequest.builder().withMessage("message").build()).get());
+        verify(httpAsyncClient, times(3)).execute(any(HttpUriRequest.class), any());
+    }
+
+    @Test
+    public void failedPublishAsyncCompletesExceptionally() throws Exception {
+        StandardSlackServiceStub service = new StandardSlackServiceStub(
+                StandardSlackService.builder()
+                        .withBaseUrl("")
+                        .withTeamDomain("domain")
+                        .withBotUser(false)
+                        .withRoomId("#room1")
+                        .withPopulatedToken("token"));
+        service.setHttpAsyncClient(asyncClientRespondingWith(HttpStatus.SC_NOT_FOUND));
+
+        try {
+            service.publishAsync(SlackRequest.builder().withMessage("message").build()).get();
+            fail("the post failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void publishAsyncPostsToTheSameChannelInOrder() throws Exception {
+        StandardSlackServiceStub service = new StandardSlackServiceStub(
+                StandardSlackService.builder()
+                        .withBaseUrl("")
+                        .withTeamDomain("domain")
+                        .withBotUser(false)
+                        .withRoomId("#room1,#room1:1543931401.000500,#room2")
+                        .withPopulatedToken("token"));
+        List<FutureCallback<HttpResponse>> callbacks = new ArrayList<>();
+        CloseableHttpAsyncClient httpAsyncClient = mock(CloseableHttpAsyncClient.class);
+        when(httpAsyncClient.execute(any(HttpUriRequest.class), any())).thenAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        });
+        service.setHttpAsyncClient(httpAsyncClient);
+
+        CompletableFuture<SlackResponse> response = service.publishAsync(SlackRequest.builder().withMessage("message").build());
+        // the thread waits for the message in its channel, the other channel doesn't
+        assertEquals(2, callbacks.size());
+
+        callbacks.get(0).completed(new CloseableHttpResponseStub(HttpStatus.SC_OK));
+        assertEquals(3, callbacks.size());
+        callbacks.get(1).completed(new CloseableHttpResponseStub(HttpStatus.SC_OK));
+        callbacks.get(2).completed(new CloseableHttpResponseStub(HttpStatus.SC_OK));
+        assertNotNull(response.get());
+    }
+
+    private static CloseableHttpAsyncClient asyncClientRespondingWith(int httpStatus) {
+        CloseableHttpAsyncClient httpAsyncClient = mock(CloseableHttpAsyncClient.class);
+        when(httpAsyncClient.execute(any(HttpUriRequest.class), any())).thenAnswer(invocation -> {
+            FutureCallback<HttpResponse> callback = invocation.getArgument(1);
+            callback.completed(new CloseableHttpResponseStub(httpStatus));
+            return null;
+        });
+        return httpAsyncClient;
+    }
+
 }
@@ -0,0 +1,71 @@
+package jenkins.plugins.slack.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.plugins.slack.cache.ChannelDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Looks up channels of a large workspace by name in the packed directory and in the map it
+ * replaced, and builds both from the listed channels. Run with {@code -prof gc} the build
+ * benchmarks show how much memory each of them allocates.
+ */
+@JmhBenchmark
+public class ChannelDirectoryBenchmark {
+
+    private static final int CHANNELS = 200_000;
+    private static final int LOOKUPS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Workspace {
+        Map<String, String> map;
+        ChannelDirectory directory;
+        String[] names;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            map = new HashMap<>();
+            for (int i = 0; i < CHANNELS; i++) {
+                map.put("team-" + random.nextInt(1000) + "-builds-" + i, String.format("C%08X", i));
+            }
+            directory = ChannelDirectory.of(map);
+            String[] all = map.keySet().toArray(new String[0]);
+            names = new String[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                names[i] = all[random.nextInt(all.length)];
+            }
+        }
+    }
+
+    @Benchmark
+    public void hashMapLookup(Workspace workspace, Blackhole blackhole) {
+        for (String name : workspace.names) {
+            blackhole.consume(workspace.map.get(name));
+        }
+    }
+
+    @Benchmark
+    public void channelDirectoryLookup(Workspace workspace, Blackhole blackhole) {
+        for (String name : workspace.names) {
+            blackhole.consume(workspace.directory.get(name));
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> hashMapBuild(Workspace workspace) {
+        return new HashMap<>(workspace.map);
+    }
+
+    @Benchmark
+    public ChannelDirectory channelDirectoryBuild(Workspace workspace) {
+        return ChannelDirectory.of(workspace.map);
+    }
+}
@@ -0,0 +1,109 @@
+package jenkins.plugins.slack.benchmarks;
+
+import hudson.model.Result;
+import hudson.model.TaskListener;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.plugins.slack.CommitInfoChoice;
+import jenkins.plugins.slack.SlackNotifier;
+import jenkins.plugins.slack.decisions.Context;
+import jenkins.plugins.slack.decisions.DecisionTable;
+import jenkins.plugins.slack.decisions.NotificationConditions;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decides about every transition between build results, with the usual preferences of failures,
+ * regressions and back to normal, through the conditions and through the decision table.
+ */
+@JmhBenchmark
+public class DecisionTableBenchmark {
+
+    private static final Result[] RESULTS = {
+            Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED, null
+    };
+
+    @State(Scope.Benchmark)
+    public static class Transitions {
+        SlackNotifier preferences;
+        BuildAwareLogger log;
+        List<Context> contexts;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            preferences = new SlackNotifier(CommitInfoChoice.NONE);
+            preferences.setNotifyFailure(true);
+            preferences.setNotifyRegression(true);
+            preferences.setNotifyBackToNormal(true);
+            log = new NullLogger();
+            contexts = new ArrayList<>();
+            for (Result previous : RESULTS) {
+                for (Result current : RESULTS) {
+                    contexts.add(new ResultsContext(previous, current));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void conditions(Transitions transitions, Blackhole blackhole) {
+        for (Context context : transitions.contexts) {
+            blackhole.consume(NotificationConditions.create(transitions.preferences, transitions.log).test(context));
+        }
+    }
+
+    @Benchmark
+    public void decisionTable(Transitions transitions, Blackhole blackhole) {
+        for (Context context : transitions.contexts) {
+            blackhole.consume(DecisionTable.forPreferences(transitions.preferences).test(context, "job #1", transitions.log));
+        }
+    }
+
+    // a build without test results, the previous build is only known by its result
+    private static class ResultsContext extends Context {
+        private final Result previous;
+        private final Result current;
+
+        ResultsContext(Result previous, Result current) {
+            super(null, null);
+            this.previous = previous;
+            this.current = current;
+        }
+
+        @Override
+        public Result previousResultOrSuccess() {
+            return previous != null ? previous : Result.SUCCESS;
+        }
+
+        @Override
+        public Result currentResult() {
+            return current;
+        }
+
+        @Override
+        public Result currentResultOrSuccess() {
+            return current != null ? current : Result.SUCCESS;
+        }
+    }
+
+    private static class NullLogger implements BuildAwareLogger {
+        @Override
+        public void debug(String key, String message, Object... args) {
+        }
+
+        @Override
+        public void info(String key, String message, Object... args) {
+        }
+
+        @Override
+        public TaskListener getTaskListener() {
+            return null;
+        }
+    }
+}
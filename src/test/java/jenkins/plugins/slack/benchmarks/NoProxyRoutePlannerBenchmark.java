@@ -0,0 +1,96 @@
+package jenkins.plugins.slack.benchmarks;
+
+import hudson.ProxyConfiguration;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.plugins.slack.NoProxyHostCheckerRoutePlanner;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.HttpContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Routes requests to Slack and to an internal host with a 60 entry no proxy list, compiling the
+ * list for every request like the planner used to and with the compiled list and remembered
+ * decisions of {@link NoProxyHostCheckerRoutePlanner}.
+ */
+@JmhBenchmark
+public class NoProxyRoutePlannerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Routes {
+        NoProxyHostCheckerRoutePlanner planner;
+        CompilingRoutePlanner compilingPlanner;
+        HttpHost[] targets;
+        HttpRequest request;
+        HttpContext context;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            StringJoiner noProxyHost = new StringJoiner("\n");
+            for (int i = 0; i < 60; i++) {
+                noProxyHost.add(i % 2 == 0 ? "*.team" + i + ".example.internal" : "build" + i + ".example.com");
+            }
+            HttpHost proxy = new HttpHost("proxy.example.com", 3128);
+            planner = new NoProxyHostCheckerRoutePlanner(noProxyHost.toString(), proxy);
+            compilingPlanner = new CompilingRoutePlanner(noProxyHost.toString(), proxy);
+            targets = new HttpHost[] {
+                    new HttpHost("slack.com", 443, "https"),
+                    new HttpHost("hooks.slack.com", 443, "https"),
+                    // without a port, like the patterns of the list expect
+                    new HttpHost("chat.team58.example.internal", -1, "https")
+            };
+            request = new BasicHttpRequest("POST", "/api/chat.postMessage");
+            context = HttpClientContext.create();
+        }
+    }
+
+    @Benchmark
+    public void compilingEveryRequest(Routes routes, Blackhole blackhole) throws HttpException {
+        for (HttpHost target : routes.targets) {
+            blackhole.consume(routes.compilingPlanner.determineRoute(target, routes.request, routes.context));
+        }
+    }
+
+    @Benchmark
+    public void compiledAndRemembered(Routes routes, Blackhole blackhole) throws HttpException {
+        for (HttpHost target : routes.targets) {
+            blackhole.consume(routes.planner.determineRoute(target, routes.request, routes.context));
+        }
+    }
+
+    // the planner before the no proxy list was compiled once
+    private static class CompilingRoutePlanner {
+        private final DefaultProxyRoutePlanner defaultProxyRoutePlanner;
+        private final DefaultRoutePlanner defaultRoutePlanner = new DefaultRoutePlanner(new DefaultSchemePortResolver());
+        private final String noProxyHost;
+
+        CompilingRoutePlanner(String noProxyHost, HttpHost proxy) {
+            this.defaultProxyRoutePlanner = new DefaultProxyRoutePlanner(proxy);
+            this.noProxyHost = noProxyHost;
+        }
+
+        HttpRoute determineRoute(HttpHost target, HttpRequest request, HttpContext context) throws HttpException {
+            String host = target.toURI();
+            for (Pattern p : ProxyConfiguration.getNoProxyHostPatterns(noProxyHost)) {
+                if (p.matcher(host).matches()) {
+                    return defaultRoutePlanner.determineRoute(target, request, context);
+                }
+            }
+            return defaultProxyRoutePlanner.determineRoute(target, request, context);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package jenkins.plugins.slack.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ChannelDirectoryTest {
+
+    @Test
+    public void everyChannelIsFound() {
+        Map<String, String> channels = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            channels.put("channel-" + i, "C" + i);
+        }
+        channels.put("caf\u00e9", "C\u00e9");
+        channels.put("\u30c1\u30e3\u30f3\u30cd\u30eb", "CJ");
+        channels.put("", "CEMPTY");
+
+        ChannelDirectory directory = ChannelDirectory.of(channels);
+
+        assertEquals(channels.size(), directory.size());
+        for (Map.Entry<String, String> channel : channels.entrySet()) {
+            assertEquals(channel.getValue(), directory.get(channel.getKey()));
+        }
+    }
+
+    @Test
+    public void unknownChannelsAreNotFound() {
+        ChannelDirectory directory = ChannelDirectory.of(Collections.singletonMap("general", "C0123456789"));
+
+        assertNull(directory.get("genera"));
+        assertNull(directory.get("general2"));
+        assertNull(directory.get("General"));
+        assertNull(ChannelDirectory.of(Collections.emptyMap()).get("general"));
+    }
+
+    @Test
+    public void channelsAreOrderedByName() {
+        Map<String, String> channels = new HashMap<>();
+        channels.put("random", "C2");
+        channels.put("general", "C1");
+        channels.put("\u00e9quipe", "C3");
+
+        ChannelDirectory directory = ChannelDirectory.of(channels);
+
+        assertEquals("general", directory.nameAt(0));
+        assertEquals("C1", directory.idAt(0));
+        assertEquals("random", directory.nameAt(1));
+        assertEquals("\u00e9quipe", directory.nameAt(2));
+        assertEquals("C3", directory.idAt(2));
+    }
+
+    @Test
+    public void directoriesOfTheSameChannelsAreEqual() {
+        Map<String, String> channels = new HashMap<>();
+        channels.put("general", "C1");
+        channels.put("random", "C2");
+
+        assertEquals(ChannelDirectory.of(channels), ChannelDirectory.of(new TreeMap<>(channels)));
+    }
+}
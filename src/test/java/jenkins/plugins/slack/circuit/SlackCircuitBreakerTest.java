@@ -0,0 +1,78 @@
+package jenkins.plugins.slack.circuit;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlackCircuitBreakerTest {
+
+    private static final long OPEN = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        SlackCircuitBreaker breaker = new SlackCircuitBreaker("test", 3, OPEN);
+
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        assertTrue(breaker.allowRequest(0));
+        breaker.onFailure(0);
+
+        assertEquals(SlackCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(1));
+        assertEquals(1, breaker.getRejectedCalls());
+    }
+
+    @Test
+    public void successResetsTheFailureCount() {
+        SlackCircuitBreaker breaker = new SlackCircuitBreaker("test", 3, OPEN);
+
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        breaker.onSuccess();
+        breaker.onFailure(0);
+
+        assertEquals(SlackCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void singleTrialIsLetThroughOnceTheOpenPeriodIsOver() {
+        SlackCircuitBreaker breaker = openBreaker();
+
+        assertTrue(breaker.allowRequest(OPEN));
+        assertEquals(SlackCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(OPEN + 1));
+    }
+
+    @Test
+    public void successfulTrialClosesTheBreaker() {
+        SlackCircuitBreaker breaker = openBreaker();
+        assertTrue(breaker.allowRequest(OPEN));
+
+        breaker.onSuccess();
+
+        assertEquals(SlackCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(OPEN + 1));
+    }
+
+    @Test
+    public void failedTrialOpensTheBreakerAgain() {
+        SlackCircuitBreaker breaker = openBreaker();
+        assertTrue(breaker.allowRequest(OPEN));
+
+        breaker.onFailure(OPEN);
+
+        assertEquals(SlackCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(2 * OPEN - 1));
+        assertTrue(breaker.allowRequest(2 * OPEN));
+    }
+
+    private static SlackCircuitBreaker openBreaker() {
+        SlackCircuitBreaker breaker = new SlackCircuitBreaker("test", 1, OPEN);
+        breaker.onFailure(0);
+        return breaker;
+    }
+}
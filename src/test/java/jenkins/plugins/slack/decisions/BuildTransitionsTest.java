@@ -0,0 +1,167 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BuildTransitionsTest {
+
+    private static final Result[] RESULTS = {
+            Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void walkFindsLastNonAbortedAndBrokenBuilds() {
+        List<AbstractBuild<?, ?>> builds = builds(Result.FAILURE, Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.ABORTED);
+
+        BuildTransitions transitions = BuildTransitions.walk(builds.get(4));
+
+        assertEquals(4, transitions.getLastNonAbortedNumber());
+        assertEquals(Result.FAILURE, transitions.getLastNonAbortedResult());
+        assertEquals(2, transitions.getLastSuccessNumber());
+        assertEquals(3, transitions.getBrokenNumber());
+        assertEquals(endOf(3), transitions.getBrokenEndMillis());
+    }
+
+    @Test
+    public void walkWithoutSuccessfulOrNonAbortedBuilds() {
+        List<AbstractBuild<?, ?>> builds = builds(Result.ABORTED, Result.ABORTED);
+
+        BuildTransitions transitions = BuildTransitions.walk(builds.get(1));
+
+        assertEquals(0, transitions.getLastNonAbortedNumber());
+        assertNull(transitions.getLastNonAbortedResult());
+        assertEquals(0, transitions.getLastSuccessNumber());
+        assertEquals(0, transitions.getBrokenNumber());
+    }
+
+    @Test
+    public void walkGivesUpOnRunningBuilds() {
+        List<AbstractBuild<?, ?>> builds = builds(Result.SUCCESS, Result.FAILURE, Result.FAILURE);
+        when(builds.get(1).isBuilding()).thenReturn(true);
+
+        assertNull(BuildTransitions.walk(builds.get(2)));
+    }
+
+    @Test
+    public void recordingBuildsOneByOneMatchesWalkingThem() {
+        Random random = new Random(22);
+        for (int history = 0; history < 200; history++) {
+            Result[] results = new Result[1 + random.nextInt(12)];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = RESULTS[random.nextInt(RESULTS.length)];
+            }
+            List<AbstractBuild<?, ?>> builds = builds(results);
+
+            BuildTransitions transitions = BuildTransitions.walk(builds.get(0));
+            for (int i = 1; i < builds.size(); i++) {
+                transitions = transitions.after(builds.get(i));
+                BuildTransitions walked = BuildTransitions.walk(builds.get(i));
+
+                assertEquals(walked.getLastNonAbortedNumber(), transitions.getLastNonAbortedNumber());
+                assertEquals(walked.getLastNonAbortedResult(), transitions.getLastNonAbortedResult());
+                assertEquals(walked.getLastSuccessNumber(), transitions.getLastSuccessNumber());
+                assertEquals(walked.getBrokenNumber(), transitions.getBrokenNumber());
+                assertEquals(walked.getBrokenEndMillis(), transitions.getBrokenEndMillis());
+            }
+        }
+    }
+
+    @Test
+    public void deletingAnOldBuildKeepsTheTransitions() throws IOException {
+        AbstractProject job = job();
+        List<AbstractBuild<?, ?>> builds = builds(job, Result.SUCCESS, Result.FAILURE, Result.SUCCESS, Result.FAILURE, Result.ABORTED);
+        BuildTransitions.record(builds.get(4));
+        BuildTransitions recorded = BuildTransitions.get(job);
+
+        // discarded by the build discarder once the next build completed
+        BuildTransitions.invalidate(builds.get(0));
+        BuildTransitions.invalidate(builds.get(1));
+
+        assertSame(recorded, BuildTransitions.get(job));
+        assertTrue(new File(job.getRootDir(), BuildTransitions.FILE_NAME).exists());
+        AbstractBuild next = nextBuild(job, builds.get(4), Result.FAILURE);
+        BuildTransitions transitions = BuildTransitions.before(next);
+        assertNotNull(transitions);
+        assertEquals(3, transitions.getLastSuccessNumber());
+        assertEquals(4, transitions.getBrokenNumber());
+    }
+
+    @Test
+    public void deletingABuildTheTransitionsPointAtForgetsThem() throws IOException {
+        AbstractProject job = job();
+        List<AbstractBuild<?, ?>> builds = builds(job, Result.SUCCESS, Result.FAILURE, Result.SUCCESS, Result.FAILURE, Result.ABORTED);
+        BuildTransitions.record(builds.get(4));
+
+        BuildTransitions.invalidate(builds.get(3));
+
+        assertNull(BuildTransitions.get(job));
+        assertFalse(new File(job.getRootDir(), BuildTransitions.FILE_NAME).exists());
+    }
+
+    private AbstractProject job() throws IOException {
+        AbstractProject job = mock(AbstractProject.class);
+        when(job.getRootDir()).thenReturn(folder.newFolder());
+        when(job.getFullName()).thenReturn("job");
+        return job;
+    }
+
+    private static AbstractBuild nextBuild(AbstractProject job, AbstractBuild<?, ?> previous, Result result) {
+        AbstractBuild next = mock(AbstractBuild.class);
+        when(next.getNumber()).thenReturn(previous.getNumber() + 1);
+        when(next.getResult()).thenReturn(result);
+        when(next.getPreviousBuild()).thenReturn(previous);
+        when(next.getParent()).thenReturn(job);
+        when(job.getLastBuild()).thenReturn(next);
+        return next;
+    }
+
+    private static List<AbstractBuild<?, ?>> builds(AbstractProject job, Result... results) {
+        List<AbstractBuild<?, ?>> builds = builds(results);
+        for (AbstractBuild build : builds) {
+            when(build.getParent()).thenReturn(job);
+        }
+        return builds;
+    }
+
+    private static List<AbstractBuild<?, ?>> builds(Result... results) {
+        List<AbstractBuild<?, ?>> builds = new ArrayList<>();
+        AbstractBuild previous = null;
+        for (int i = 0; i < results.length; i++) {
+            int number = i + 1;
+            AbstractBuild build = mock(AbstractBuild.class);
+            when(build.getNumber()).thenReturn(number);
+            when(build.getResult()).thenReturn(results[i]);
+            when(build.getPreviousBuild()).thenReturn(previous);
+            when(build.getStartTimeInMillis()).thenReturn(number * 1000L);
+            when(build.getDuration()).thenReturn(100L);
+            builds.add(build);
+            previous = build;
+        }
+        return builds;
+    }
+
+    private static long endOf(int number) {
+        return number * 1000L + 100L;
+    }
+}
@@ -0,0 +1,88 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.model.Result;
+import hudson.tasks.junit.TestResultAction;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.plugins.slack.SlackNotifier;
+import jenkins.plugins.slack.logging.BuildAwareLogger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class DecisionTableTest {
+
+    private static final Result[] RESULTS = {
+            Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED, null
+    };
+
+    private final BuildAwareLogger log = mock(BuildAwareLogger.class, withSettings().stubOnly());
+
+    @Test
+    public void shouldDecideLikeTheConditionsForEveryTransition() {
+        List<Context> contexts = new ArrayList<>();
+        for (Result previous : RESULTS) {
+            for (Result current : RESULTS) {
+                contexts.add(context(previous, current, false));
+                contexts.add(context(previous, current, true));
+            }
+        }
+
+        for (int mask = 0; mask < 1 << 9; mask++) {
+            SlackNotifier preferences = preferences(mask);
+            NotificationConditions conditions = NotificationConditions.create(preferences, log);
+            DecisionTable table = DecisionTable.forPreferences(preferences);
+            for (Context context : contexts) {
+                assertEquals("preferences " + mask + ", " + context.previousResultOrSuccess() + " to " + context.currentResult(),
+                        conditions.test(context), table.test(context, "job #1", log));
+            }
+        }
+    }
+
+    @Test
+    public void shouldShareTheTableOfTheSamePreferences() {
+        assertSame(DecisionTable.forPreferences(preferences(DecisionTable.ON_SUCCESS | DecisionTable.ON_REGRESSION)),
+                DecisionTable.forPreferences(preferences(DecisionTable.ON_SUCCESS | DecisionTable.ON_REGRESSION)));
+    }
+
+    @Test
+    public void shouldReadEveryPreference() {
+        for (int mask = 0; mask < 1 << 9; mask++) {
+            assertEquals(mask, DecisionTable.mask(preferences(mask)));
+        }
+    }
+
+    private static SlackNotifier preferences(int mask) {
+        SlackNotifier preferences = mock(SlackNotifier.class, withSettings().stubOnly());
+        when(preferences.getNotifyAborted()).thenReturn((mask & DecisionTable.ON_ABORTED) != 0);
+        when(preferences.getNotifyEveryFailure()).thenReturn((mask & DecisionTable.ON_EVERY_FAILURE) != 0);
+        when(preferences.getNotifyFailure()).thenReturn((mask & DecisionTable.ON_SINGLE_FAILURE) != 0);
+        when(preferences.getNotifyRepeatedFailure()).thenReturn((mask & DecisionTable.ON_REPEATED_FAILURE) != 0);
+        when(preferences.getNotifyNotBuilt()).thenReturn((mask & DecisionTable.ON_NOT_BUILT) != 0);
+        when(preferences.getNotifyBackToNormal()).thenReturn((mask & DecisionTable.ON_BACK_TO_NORMAL) != 0);
+        when(preferences.getNotifySuccess()).thenReturn((mask & DecisionTable.ON_SUCCESS) != 0);
+        when(preferences.getNotifyRegression()).thenReturn((mask & DecisionTable.ON_REGRESSION) != 0);
+        when(preferences.getNotifyUnstable()).thenReturn((mask & DecisionTable.ON_UNSTABLE) != 0);
+        return preferences;
+    }
+
+    private static Context context(Result previous, Result current, boolean testsRegressed) {
+        Context context = mock(Context.class, withSettings().stubOnly());
+        when(context.previousResultOrSuccess()).thenReturn(previous != null ? previous : Result.SUCCESS);
+        when(context.currentResult()).thenReturn(current);
+        when(context.currentResultOrSuccess()).thenReturn(current != null ? current : Result.SUCCESS);
+        if (testsRegressed) {
+            TestResultAction previousTestResult = mock(TestResultAction.class, withSettings().stubOnly());
+            when(previousTestResult.getFailCount()).thenReturn(1);
+            TestResultAction currentTestResult = mock(TestResultAction.class, withSettings().stubOnly());
+            when(currentTestResult.getFailCount()).thenReturn(2);
+            when(context.getPreviousTestResult()).thenReturn(previousTestResult);
+            when(context.getCurrentTestResult()).thenReturn(currentTestResult);
+        }
+        return context;
+    }
+}
@@ -0,0 +1,47 @@
+package jenkins.plugins.slack.decisions;
+
+import hudson.tasks.test.TestResult;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FailedTestHashesTest {
+
+    @Test
+    public void hashesWithFnv1a() {
+        assertEquals(0xcbf29ce484222325L, FailedTestHashes.hash(""));
+        assertEquals(0xaf63dc4c8601ec8cL, FailedTestHashes.hash("a"));
+        assertEquals(0x85944171f73967e8L, FailedTestHashes.hash("foobar"));
+    }
+
+    @Test
+    public void containsTheFailedTests() {
+        FailedTestHashes failedTests = FailedTestHashes.of(Arrays.asList(test("junit/com.example/FooTest/first"),
+                test("junit/com.example/FooTest/second")));
+
+        assertEquals(2, failedTests.size());
+        assertTrue(failedTests.contains(test("junit/com.example/FooTest/second")));
+        assertFalse(failedTests.contains(test("junit/com.example/FooTest/third")));
+    }
+
+    @Test
+    public void countsTheTestsMissingFromAnotherBuild() {
+        FailedTestHashes previous = FailedTestHashes.of(Arrays.asList(test("first"), test("second"), test("third")));
+        FailedTestHashes current = FailedTestHashes.of(Arrays.asList(test("second"), test("fourth")));
+
+        assertEquals(2, previous.countMissingFrom(current));
+        assertEquals(1, current.countMissingFrom(previous));
+        assertEquals(0, current.countMissingFrom(current));
+    }
+
+    private static TestResult test(String id) {
+        TestResult test = mock(TestResult.class);
+        when(test.getId()).thenReturn(id);
+        return test;
+    }
+}
@@ -0,0 +1,36 @@
+package jenkins.plugins.slack.outbox;
+
+import jenkins.plugins.slack.SlackRequest;
+import jenkins.plugins.slack.StandardSlackService;
+import jenkins.plugins.slack.StandardSlackServiceStub;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class SlackOutboxTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void queuedAsyncNotificationIsLeftToTheOutbox() throws Exception {
+        StandardSlackServiceStub service = new StandardSlackServiceStub(
+                StandardSlackService.builder()
+                        .withBaseUrl("")
+                        .withTeamDomain("domain")
+                        .withBotUser(false)
+                        .withRoomId("#room1")
+                        .withPopulatedToken("token")
+                        .withQueueNotifications(true));
+        CloseableHttpAsyncClient httpAsyncClient = mock(CloseableHttpAsyncClient.class);
+        service.setHttpAsyncClient(httpAsyncClient);
+
+        assertNotNull(service.publishAsync(SlackRequest.builder().withMessage("message").build()).get());
+        verifyNoMoreInteractions(httpAsyncClient);
+    }
+}
@@ -0,0 +1,88 @@
+package jenkins.plugins.slack.ratelimit;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+
+public class SlackRetryPolicyTest {
+
+    @Test
+    public void successfulResponseIsNotRetried() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.update");
+
+        assertEquals(-1, retryPolicy.nextDelayMillis(response(HttpStatus.SC_OK)));
+        assertEquals(0, retryPolicy.getRetries());
+    }
+
+    @Test
+    public void rateLimitedPostWaitsForRetryAfter() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.postMessage");
+        HttpResponse response = response(HttpStatus.SC_TOO_MANY_REQUESTS);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+
+        assertEquals(2000, retryPolicy.nextDelayMillis(response));
+        assertEquals(1, retryPolicy.getRetries());
+    }
+
+    @Test
+    public void serverErrorIsNotRetriedForPosts() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.postMessage");
+
+        assertEquals(-1, retryPolicy.nextDelayMillis(response(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+    }
+
+    @Test
+    public void serverErrorIsRetriedForUpdates() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.update");
+
+        assertThat(retryPolicy.nextDelayMillis(response(HttpStatus.SC_SERVICE_UNAVAILABLE)), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void connectionFailureIsRetriedForPosts() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.postMessage");
+
+        assertThat(retryPolicy.nextDelayMillis(new ConnectException("refused")), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void readTimeoutIsOnlyRetriedForIdempotentCalls() {
+        IOException timeout = new SocketTimeoutException("Read timed out");
+
+        assertEquals(-1, SlackRetryPolicy.forMethod("chat.postMessage").nextDelayMillis(timeout));
+        assertThat(SlackRetryPolicy.forMethod("reactions.add").nextDelayMillis(timeout), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void givesUpAfterTheMaximumNumberOfRetries() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.update");
+        for (int i = 0; i < retryPolicy.getMaxRetries(); i++) {
+            assertThat(retryPolicy.nextDelayMillis(response(HttpStatus.SC_BAD_GATEWAY)), greaterThanOrEqualTo(0L));
+        }
+
+        assertEquals(-1, retryPolicy.nextDelayMillis(response(HttpStatus.SC_BAD_GATEWAY)));
+    }
+
+    @Test
+    public void retryAfterBeyondTheTotalDelayIsNotWaitedFor() {
+        SlackRetryPolicy retryPolicy = SlackRetryPolicy.forMethod("chat.postMessage");
+        HttpResponse response = response(HttpStatus.SC_TOO_MANY_REQUESTS);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "3600");
+
+        assertEquals(-1, retryPolicy.nextDelayMillis(response));
+    }
+
+    private static HttpResponse response(int status) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    }
+}
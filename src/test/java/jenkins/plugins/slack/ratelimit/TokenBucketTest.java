@@ -0,0 +1,59 @@
+package jenkins.plugins.slack.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstIsAvailableImmediately() {
+        TokenBucket bucket = new TokenBucket(60, 3, 0);
+
+        assertEquals(0, bucket.reserve(0, 0));
+        assertEquals(0, bucket.reserve(0, 0));
+        assertEquals(0, bucket.reserve(0, 0));
+    }
+
+    @Test
+    public void callsBeyondTheBurstWaitForTheRefill() {
+        TokenBucket bucket = new TokenBucket(60, 1, 0);
+
+        assertEquals(0, bucket.reserve(0, 10 * SECOND));
+        assertEquals(SECOND, bucket.reserve(0, 10 * SECOND));
+        assertEquals(2 * SECOND, bucket.reserve(0, 10 * SECOND));
+    }
+
+    @Test
+    public void reservationBeyondTheWaitBudgetIsRejectedWithoutTakingAPermit() {
+        TokenBucket bucket = new TokenBucket(60, 1, 0);
+        bucket.reserve(0, 0);
+
+        assertEquals(-1, bucket.reserve(0, SECOND / 2));
+        assertEquals(SECOND, bucket.reserve(0, SECOND));
+    }
+
+    @Test
+    public void unusedPermitsBuildUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(60, 2, 0);
+        bucket.reserve(0, 0);
+        bucket.reserve(0, 0);
+
+        long later = 100 * SECOND;
+        assertEquals(0, bucket.reserve(later, 0));
+        assertEquals(0, bucket.reserve(later, 0));
+        assertEquals(-1, bucket.reserve(later, 0));
+    }
+
+    @Test
+    public void retryAfterHoldsBackTheNextPermit() {
+        TokenBucket bucket = new TokenBucket(60, 5, 0);
+
+        bucket.penalize(0, 30 * SECOND);
+
+        assertEquals(30 * SECOND, bucket.reserve(0, 60 * SECOND));
+    }
+}
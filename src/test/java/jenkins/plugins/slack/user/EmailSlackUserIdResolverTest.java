@@ -30,13 +30,16 @@ import hudson.tasks.MailAddressResolver;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import jenkins.plugins.slack.CloseableHttpClientStub;
 import jenkins.plugins.slack.CloseableHttpResponseStub;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.StringEntity;
 import org.junit.Before;
 import org.junit.Test;
@@ -56,6 +59,7 @@ public class EmailSlackUserIdResolverTest {
 
     private static final String EXPECTED_USER_ID = "W012A3CDE";
     private static final String EMAIL_ADDRESS = "spengler@ghostbusters.example.com";
+    private static final String OTHER_EMAIL_ADDRESS = "venkman@ghostbusters.example.com";
     private static final String AUTH_TOKEN = "token";
 
     private static String responseOKContent;
@@ -72,6 +76,8 @@ public class EmailSlackUserIdResolverTest {
 
     @Before
     public void setUp() {
+        SlackUserIdCache.clear();
+        MailAddressCache.clear();
         httpClient = new CloseableHttpClientStub();
         mailAddressResolver = getMailAddressResolver();
         resolver = getResolver(mailAddressResolver);
@@ -87,11 +93,53 @@ public class EmailSlackUserIdResolverTest {
         assertEquals(EXPECTED_USER_ID, userId);
 
         // Test handling of an error response from Slack
+        SlackUserIdCache.clear();
         httpClient.setHttpResponse(getResponseError());
         userId = resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS);
         assertNull(userId);
     }
 
+    @Test
+    public void testUserIdIsCached() throws IOException {
+        httpClient.setHttpResponse(getResponseOK());
+
+        assertEquals(EXPECTED_USER_ID, resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS));
+        assertEquals(EXPECTED_USER_ID, resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS.toUpperCase()));
+
+        assertEquals(1, httpClient.getNumberOfCallsToExecuteMethod());
+    }
+
+    @Test
+    public void testUserNotFoundIsCached() throws IOException {
+        httpClient.setHttpResponse(getResponseError());
+
+        assertNull(resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS));
+        assertNull(resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS));
+
+        assertEquals(1, httpClient.getNumberOfCallsToExecuteMethod());
+    }
+
+    @Test
+    public void testFailedLookupIsNotCached() {
+        httpClient.setHttpStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+        assertNull(resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS));
+        assertNull(resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS));
+
+        assertEquals(2, httpClient.getNumberOfCallsToExecuteMethod());
+    }
+
+    @Test
+    public void testUserIdIsCachedPerToken() throws IOException {
+        httpClient.setHttpResponse(getResponseOK());
+
+        resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS);
+        resolver.setAuthToken("other-token");
+        resolver.resolveUserIdForEmailAddress(EMAIL_ADDRESS);
+
+        assertEquals(2, httpClient.getNumberOfCallsToExecuteMethod());
+    }
+
     @Test
     public void testResolveUserIdForUser() throws Exception {
         // MailAddressResolver is mocked to return EMAIL_ADDRESS associated with
@@ -101,6 +149,39 @@ public class EmailSlackUserIdResolverTest {
         assertEquals(EXPECTED_USER_ID, userId);
     }
 
+    @Test
+    public void testResolveUserIdForUserTriesTheNextAddressWhenUserIsNotFound() throws Exception {
+        MailAddressResolver unknownAddressResolver = mock(MailAddressResolver.class);
+        when(unknownAddressResolver.findMailAddressFor(any(User.class))).thenReturn(OTHER_EMAIL_ADDRESS);
+        CloseableHttpResponse responseError = getResponseError();
+        CloseableHttpResponse responseOK = getResponseOK();
+        httpClient = new CloseableHttpClientStub() {
+            @Override
+            public CloseableHttpResponse execute(HttpUriRequest request) {
+                super.execute(request);
+                return request.getURI().toString().contains(OTHER_EMAIL_ADDRESS) ? responseError : responseOK;
+            }
+        };
+        resolver = new EmailSlackUserIdResolver(AUTH_TOKEN, httpClient,
+                Arrays.asList(unknownAddressResolver, getMailAddressResolver()));
+
+        assertEquals(EXPECTED_USER_ID, resolver.resolveUserId(mock(User.class)));
+        assertEquals(2, httpClient.getNumberOfCallsToExecuteMethod());
+    }
+
+    @Test
+    public void testDefaultMailAddressResolverIsOnlyAskedWhenTheResolversFindNothing() throws Exception {
+        AtomicInteger defaultLookups = new AtomicInteger();
+        resolver = new EmailSlackUserIdResolver(AUTH_TOKEN, httpClient, Collections.singletonList(mailAddressResolver), user -> {
+            defaultLookups.incrementAndGet();
+            return EMAIL_ADDRESS;
+        });
+        httpClient.setHttpResponse(getResponseOK());
+
+        assertEquals(EXPECTED_USER_ID, resolver.resolveUserId(mock(User.class)));
+        assertEquals(0, defaultLookups.get());
+    }
+
     @Test
     public void testResolveUserIdForUserWithoutEmailAddress() throws Exception {
         mailAddressResolver = mock(MailAddressResolver.class);
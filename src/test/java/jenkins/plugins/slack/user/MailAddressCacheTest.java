@@ -0,0 +1,131 @@
+package jenkins.plugins.slack.user;
+
+import hudson.model.User;
+import hudson.tasks.MailAddressResolver;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MailAddressCacheTest {
+
+    private static final String EMAIL_ADDRESS = "spengler@ghostbusters.example.com";
+    private static final String OTHER_EMAIL_ADDRESS = "egon@ghostbusters.example.com";
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        MailAddressCache.clear();
+        user = mock(User.class);
+    }
+
+    @Test
+    public void addressesAreInResolverOrder() {
+        MailAddressResolver slow = mock(MailAddressResolver.class);
+        when(slow.findMailAddressFor(any(User.class))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return EMAIL_ADDRESS;
+        });
+        MailAddressResolver fast = resolver(OTHER_EMAIL_ADDRESS);
+
+        assertEquals(Arrays.asList(EMAIL_ADDRESS, OTHER_EMAIL_ADDRESS),
+                MailAddressCache.get(user, Arrays.asList(resolver(null), slow, fast, resolver(EMAIL_ADDRESS))));
+    }
+
+    @Test
+    public void resolversAreAskedInParallel() {
+        CountDownLatch fastAnswered = new CountDownLatch(1);
+        MailAddressResolver waiting = mock(MailAddressResolver.class);
+        when(waiting.findMailAddressFor(any(User.class))).thenAnswer(invocation ->
+                fastAnswered.await(5, TimeUnit.SECONDS) ? EMAIL_ADDRESS : null);
+        MailAddressResolver fast = mock(MailAddressResolver.class);
+        when(fast.findMailAddressFor(any(User.class))).thenAnswer(invocation -> {
+            fastAnswered.countDown();
+            return null;
+        });
+
+        assertEquals(Collections.singletonList(EMAIL_ADDRESS), MailAddressCache.get(user, Arrays.asList(waiting, fast)));
+    }
+
+    @Test
+    public void addressesAreRemembered() {
+        MailAddressResolver resolver = resolver(EMAIL_ADDRESS);
+
+        MailAddressCache.get(user, Collections.singletonList(resolver));
+        MailAddressCache.get(user, Collections.singletonList(resolver));
+
+        verify(resolver, times(1)).findMailAddressFor(user);
+    }
+
+    @Test
+    public void addressesAreRememberedPerResolvers() {
+        MailAddressResolver resolver = resolver(EMAIL_ADDRESS);
+        MailAddressResolver otherResolver = resolver(OTHER_EMAIL_ADDRESS);
+
+        assertEquals(Collections.singletonList(EMAIL_ADDRESS), MailAddressCache.get(user, Collections.singletonList(resolver)));
+        assertEquals(Collections.singletonList(OTHER_EMAIL_ADDRESS), MailAddressCache.get(user, Collections.singletonList(otherResolver)));
+        assertEquals(Collections.singletonList(EMAIL_ADDRESS), MailAddressCache.get(user, Collections.singletonList(resolver)));
+
+        verify(resolver, times(1)).findMailAddressFor(user);
+        verify(otherResolver, times(1)).findMailAddressFor(user);
+    }
+
+    @Test
+    public void addressesAreForgottenWhenUserIsSaved() {
+        MailAddressResolver resolver = resolver(EMAIL_ADDRESS);
+
+        MailAddressCache.get(user, Collections.singletonList(resolver));
+        new MailAddressCache.UserSaveListener().onChange(user, null);
+        MailAddressCache.get(user, Collections.singletonList(resolver));
+
+        verify(resolver, times(2)).findMailAddressFor(user);
+    }
+
+    @Test
+    public void failedResolverIsSkippedAndNotRemembered() {
+        MailAddressResolver failing = mock(MailAddressResolver.class);
+        when(failing.findMailAddressFor(any(User.class))).thenThrow(new IllegalStateException("LDAP is down"));
+
+        assertEquals(Collections.singletonList(EMAIL_ADDRESS),
+                MailAddressCache.get(user, Arrays.asList(failing, resolver(EMAIL_ADDRESS))));
+        MailAddressCache.get(user, Arrays.asList(failing, resolver(EMAIL_ADDRESS)));
+
+        verify(failing, times(2)).findMailAddressFor(user);
+    }
+
+    @Test
+    public void defaultAddressIsRememberedSeparately() {
+        MailAddressResolver resolver = resolver(null);
+        AtomicInteger defaultLookups = new AtomicInteger();
+        Function<User, String> defaultResolver = u -> {
+            defaultLookups.incrementAndGet();
+            return EMAIL_ADDRESS;
+        };
+
+        assertEquals(Collections.emptyList(), MailAddressCache.get(user, Collections.singletonList(resolver)));
+        assertEquals(Collections.singletonList(EMAIL_ADDRESS), MailAddressCache.getDefault(user, defaultResolver));
+        assertEquals(Collections.emptyList(), MailAddressCache.get(user, Collections.singletonList(resolver)));
+        assertEquals(Collections.singletonList(EMAIL_ADDRESS), MailAddressCache.getDefault(user, defaultResolver));
+
+        verify(resolver, times(1)).findMailAddressFor(user);
+        assertEquals(1, defaultLookups.get());
+    }
+
+    private static MailAddressResolver resolver(String emailAddress) {
+        MailAddressResolver resolver = mock(MailAddressResolver.class);
+        when(resolver.findMailAddressFor(any(User.class))).thenReturn(emailAddress);
+        return resolver;
+    }
+}
@@ -0,0 +1,138 @@
+package jenkins.plugins.slack.user;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import jenkins.plugins.slack.CloseableHttpClientStub;
+import jenkins.plugins.slack.CloseableHttpResponseStub;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SlackUserDirectoryTest {
+
+    private static final String FIRST_PAGE = "{\"ok\":true,\"members\":["
+            + "{\"id\":\"W1\",\"profile\":{\"email\":\"spengler@ghostbusters.example.com\"}}],"
+            + "\"response_metadata\":{\"next_cursor\":\"dXNlcjpXMQ==\"}}";
+    private static final String LAST_PAGE = "{\"ok\":true,\"members\":["
+            + "{\"id\":\"W2\",\"profile\":{\"email\":\"venkman@ghostbusters.example.com\"}}],"
+            + "\"response_metadata\":{\"next_cursor\":\"\"}}";
+
+    private static final String FAILED_PAGE = "";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PagedHttpClient httpClient = new PagedHttpClient();
+
+    @Test
+    public void listingCompletesOverSeveralRuns() throws IOException {
+        SlackUserDirectory directory = new SlackUserDirectory("token-1", snapshot(), Long.MAX_VALUE);
+        httpClient.pages.add(FIRST_PAGE);
+        httpClient.pages.add(LAST_PAGE);
+
+        directory.listUsers(httpClient, 1);
+
+        assertFalse(directory.isComplete());
+        assertEquals("W1", directory.get("Spengler@Ghostbusters.example.com"));
+
+        directory.listUsers(httpClient, 1);
+
+        assertTrue(directory.isComplete());
+        assertEquals("W2", directory.get("venkman@ghostbusters.example.com"));
+        assertEquals("https://slack.com/api/users.list?limit=200&cursor=dXNlcjpXMQ%3D%3D", httpClient.getLastRequest().getURI().toString());
+    }
+
+    @Test
+    public void failedPageIsListedAgain() throws IOException {
+        SlackUserDirectory directory = new SlackUserDirectory("token-2", snapshot(), Long.MAX_VALUE);
+        httpClient.pages.add(FIRST_PAGE);
+        httpClient.pages.add(FAILED_PAGE);
+        httpClient.pages.add(LAST_PAGE);
+
+        try {
+            directory.listUsers(httpClient, 10);
+        } catch (IOException e) {
+            // expected, the second page failed
+        }
+        assertFalse(directory.isComplete());
+
+        directory.listUsers(httpClient, 10);
+
+        assertTrue(directory.isComplete());
+        assertEquals("https://slack.com/api/users.list?limit=200&cursor=dXNlcjpXMQ%3D%3D", httpClient.getLastRequest().getURI().toString());
+        assertEquals(2, directory.size());
+    }
+
+    @Test
+    public void departedUsersAreDroppedWhenListedAgain() throws IOException {
+        SlackUserDirectory directory = new SlackUserDirectory("token-3", snapshot(), 0);
+        httpClient.pages.add(FIRST_PAGE);
+        httpClient.pages.add(LAST_PAGE);
+        directory.listUsers(httpClient, 10);
+
+        httpClient.pages.add(LAST_PAGE);
+        directory.listUsers(httpClient, 10);
+
+        assertNull(directory.get("spengler@ghostbusters.example.com"));
+        assertEquals("W2", directory.get("venkman@ghostbusters.example.com"));
+    }
+
+    @Test
+    public void completedListingIsNotRepeatedUntilStale() throws IOException {
+        SlackUserDirectory directory = new SlackUserDirectory("token-4", snapshot(), Long.MAX_VALUE);
+        httpClient.pages.add(LAST_PAGE);
+        directory.listUsers(httpClient, 10);
+
+        directory.listUsers(httpClient, 10);
+
+        assertEquals(1, httpClient.getNumberOfCallsToExecuteMethod());
+    }
+
+    @Test
+    public void completedListingSurvivesRestart() throws IOException {
+        File snapshot = snapshot();
+        httpClient.pages.add(LAST_PAGE);
+        new SlackUserDirectory("token-5", snapshot, Long.MAX_VALUE).listUsers(httpClient, 10);
+
+        SlackUserDirectory restarted = new SlackUserDirectory("token-5", snapshot, Long.MAX_VALUE);
+        restarted.load();
+
+        assertTrue(restarted.isComplete());
+        assertEquals("W2", restarted.get("venkman@ghostbusters.example.com"));
+    }
+
+    private File snapshot() throws IOException {
+        return new File(folder.newFolder(), "directory.bin");
+    }
+
+    /**
+     * Answers with the queued pages in order, an empty page fails with a server error.
+     */
+    private static class PagedHttpClient extends CloseableHttpClientStub {
+
+        private final Deque<String> pages = new ArrayDeque<>();
+
+        @Override
+        public CloseableHttpResponse execute(HttpUriRequest request) {
+            super.execute(request);
+            String page = pages.isEmpty() ? FAILED_PAGE : pages.poll();
+            if (page.isEmpty()) {
+                return new CloseableHttpResponseStub(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+            }
+            CloseableHttpResponse response = new CloseableHttpResponseStub(HttpStatus.SC_OK);
+            response.setEntity(new StringEntity(page, "UTF-8"));
+            return response;
+        }
+    }
+}
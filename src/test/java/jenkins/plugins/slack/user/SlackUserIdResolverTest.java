@@ -0,0 +1,96 @@
+package jenkins.plugins.slack.user;
+
+import hudson.model.Run;
+import hudson.model.User;
+import hudson.scm.ChangeLogSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.jvnet.hudson.test.FakeChangeLogSCM.EntryImpl;
+import org.jvnet.hudson.test.FakeChangeLogSCM.FakeChangeLogSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SlackUserIdResolverTest {
+
+    private final CountingResolver resolver = new CountingResolver();
+
+    @Test
+    public void authorOfSeveralChangesIsResolvedOnce() {
+        User egon = user("egon");
+        List<ChangeLogSet> changeLogSets = Arrays.asList(changeLogSet(egon, egon), changeLogSet(egon));
+
+        assertEquals(Arrays.asList("Uegon", "Uegon", "Uegon"), resolver.resolveUserIdsForChangeLogSets(changeLogSets));
+        assertEquals(1, resolver.resolutions.get("egon").get());
+    }
+
+    @Test
+    public void authorsAreInTheOrderOfTheirChanges() {
+        User egon = user("egon");
+        User peter = user("peter");
+        User ray = user("ray");
+        User winston = user("winston");
+        resolver.slowUsers.put("egon", Boolean.TRUE);
+        List<ChangeLogSet> changeLogSets = Arrays.asList(changeLogSet(egon, peter, egon), changeLogSet(ray, winston, peter));
+
+        assertEquals(Arrays.asList("Uegon", "Upeter", "Uegon", "Uray", "Uwinston", "Upeter"),
+                resolver.resolveUserIdsForChangeLogSets(changeLogSets));
+        for (String user : Arrays.asList("egon", "peter", "ray", "winston")) {
+            assertEquals(1, resolver.resolutions.get(user).get());
+        }
+    }
+
+    @Test
+    public void unresolvedAuthorsAreSkipped() {
+        User egon = user("egon");
+        User slimer = user("slimer");
+        List<ChangeLogSet> changeLogSets = Arrays.asList(changeLogSet(slimer, egon, slimer));
+
+        assertEquals(Arrays.asList("Uegon"), resolver.resolveUserIdsForChangeLogSets(changeLogSets));
+    }
+
+    private static User user(String id) {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(id);
+        return user;
+    }
+
+    private static ChangeLogSet changeLogSet(User... authors) {
+        List<EntryImpl> entries = new ArrayList<>();
+        for (User author : authors) {
+            EntryImpl entry = mock(EntryImpl.class);
+            when(entry.getAuthor()).thenReturn(author);
+            entries.add(entry);
+        }
+        return new FakeChangeLogSet(mock(Run.class), entries);
+    }
+
+    private static class CountingResolver extends SlackUserIdResolver {
+
+        private final Map<String, AtomicInteger> resolutions = new ConcurrentHashMap<>();
+        private final Map<String, Boolean> slowUsers = new ConcurrentHashMap<>();
+
+        CountingResolver() {
+            super(null, null);
+        }
+
+        @Override
+        protected String resolveUserId(User user) {
+            resolutions.computeIfAbsent(user.getId(), id -> new AtomicInteger()).incrementAndGet();
+            if (slowUsers.containsKey(user.getId())) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "slimer".equals(user.getId()) ? null : "U" + user.getId();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package jenkins.plugins.slack.user;
+
+import hudson.model.User;
+import java.io.IOException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SlackUserPropertySaverTest {
+
+    @Test
+    public void userIsSavedOncePerFlush() throws IOException {
+        SlackUserPropertySaver saver = new SlackUserPropertySaver(Long.MAX_VALUE);
+        User user = mock(User.class);
+
+        saver.add(user);
+        saver.add(user);
+        verify(user, never()).save();
+
+        saver.flush();
+        verify(user, times(1)).save();
+        assertEquals(0, saver.getPendingCount());
+    }
+
+    @Test
+    public void usersAreSavedInTheBackground() throws IOException {
+        SlackUserPropertySaver saver = new SlackUserPropertySaver(10);
+        User egon = mock(User.class);
+        User peter = mock(User.class);
+
+        saver.add(egon);
+        saver.add(peter);
+
+        verify(egon, timeout(5000)).save();
+        verify(peter, timeout(5000)).save();
+    }
+
+    @Test
+    public void userChangedAfterFlushIsSavedAgain() throws IOException {
+        SlackUserPropertySaver saver = new SlackUserPropertySaver(10);
+        User user = mock(User.class);
+
+        saver.add(user);
+        verify(user, timeout(5000)).save();
+        saver.add(user);
+
+        verify(user, timeout(5000).times(2)).save();
+    }
+
+    @Test
+    public void failedSaveDoesNotStopOthers() throws IOException {
+        SlackUserPropertySaver saver = new SlackUserPropertySaver(Long.MAX_VALUE);
+        User broken = mock(User.class);
+        doThrow(new IOException("disk full")).when(broken).save();
+        User user = mock(User.class);
+
+        saver.add(broken);
+        saver.add(user);
+        saver.flush();
+
+        verify(user).save();
+    }
+}